@@ -4,11 +4,8 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.milianz.inmomarketbackend.Domain.Entities.DTOs.FavoriteDefaultDTO;
 import org.milianz.inmomarketbackend.Domain.Entities.DTOs.FavoriteSaveDTO;
+import org.milianz.inmomarketbackend.Payload.Response.CursorPageResponse;
 import org.milianz.inmomarketbackend.Services.FavoriteService;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -30,13 +27,14 @@ public class FavoriteController {
 
     @GetMapping("/my-favorites")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<Page<FavoriteDefaultDTO>> getMyFavorites(
-            @RequestParam(defaultValue = "0") int page,
+    public ResponseEntity<CursorPageResponse<FavoriteDefaultDTO>> getMyFavorites(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int size) {
-
-        Pageable pageable = PageRequest.of(page, size, Sort.by("savedAt").descending());
-        Page<FavoriteDefaultDTO> favorites = favoriteService.getMyFavorites(pageable);
-        return ResponseEntity.ok(favorites);
+        try {
+            return ResponseEntity.ok(favoriteService.getMyFavorites(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
     }
 
     @GetMapping("/check/{publicationId}")
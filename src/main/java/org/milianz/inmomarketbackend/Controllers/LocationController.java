@@ -0,0 +1,30 @@
+package org.milianz.inmomarketbackend.Controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.LocationSuggestionDTO;
+import org.milianz.inmomarketbackend.Services.LocationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/locations")
+@RequiredArgsConstructor
+public class LocationController {
+
+    private final LocationService locationService;
+
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<LocationSuggestionDTO>> autocomplete(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(locationService.autocomplete(query, limit));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(null);
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(null);
+        }
+    }
+}
@@ -2,113 +2,326 @@ package org.milianz.inmomarketbackend.Controllers;
 
 
 import jakarta.validation.Valid;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationClusterDTO;
 import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationDefaultDTO;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationFacetCountsDTO;
 import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationSaveDTO;
-import org.milianz.inmomarketbackend.Services.CloudinaryService;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationSearchDTO;
+import org.milianz.inmomarketbackend.Payload.Request.PublicationBatchRequest;
+import org.milianz.inmomarketbackend.Payload.Response.CursorPageResponse;
+import org.milianz.inmomarketbackend.Payload.Response.MessageResponse;
+import org.milianz.inmomarketbackend.Payload.Response.PublicationBatchResponse;
+import org.milianz.inmomarketbackend.Payload.Response.PublicationCreationResponse;
+import org.milianz.inmomarketbackend.Services.ImageStorageService;
+import org.milianz.inmomarketbackend.Services.PublicationCreationPipeline;
 import org.milianz.inmomarketbackend.Services.PublicationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
-import java.math.BigDecimal;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import java.security.Principal;
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/publications")
 public class PublicationController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+    // Listados públicos: se pueden reutilizar un rato y luego se revalidan con la ETag
+    private static final CacheControl PUBLIC_LIST_CACHE = CacheControl.maxAge(Duration.ofSeconds(30)).cachePublic();
+    // Detalle autenticado: cada uso se revalida, lo que con la ETag suele terminar en un 304 sin cuerpo
+    private static final CacheControl PRIVATE_REVALIDATE = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private PublicationService publicationService;
     @Autowired
-    private CloudinaryService cloudinaryService;
+    private ImageStorageService imageStorageService;
+    @Autowired
+    private PublicationCreationPipeline publicationCreationPipeline;
 
     @PostMapping("/create")
-    public ResponseEntity <?> createPublication(@Valid @ModelAttribute PublicationSaveDTO publicationSaveDTO, Principal principal, @RequestParam("files") MultipartFile[] files) throws Exception {
-        return publicationService.createPublication(publicationSaveDTO , principal.getName(), files);
+    public ResponseEntity <?> createPublication(@Valid @ModelAttribute PublicationSaveDTO publicationSaveDTO, Principal principal,
+                                                @RequestParam("files") MultipartFile[] files,
+                                                @RequestParam(defaultValue = "false") boolean async) throws Exception {
+        if (!async) {
+            return publicationService.createPublication(publicationSaveDTO , principal.getName(), files);
+        }
+        // Responde en cuanto la publicación queda guardada como PENDING; las imágenes se suben en segundo plano
+        try {
+            PublicationCreationResponse creation = publicationCreationPipeline.start(publicationSaveDTO,
+                    principal.getName(), files);
+            return ResponseEntity.accepted()
+                    .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                            .path("/api/publications/creationStatus")
+                            .queryParam("publicationId", creation.getPublicationId())
+                            .build().toUri())
+                    .body(creation);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(new MessageResponse("Error creating publication: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/creationStatus")
+    public ResponseEntity<PublicationCreationResponse> getCreationStatus(@RequestParam("publicationId") UUID publicationId,
+                                                                         Principal principal) {
+        return publicationCreationPipeline.status(publicationId, principal.getName())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @GetMapping("All")
-    public ResponseEntity<List<PublicationDefaultDTO>> getAllPublications() {
+    public ResponseEntity<?> getAllPublications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String view,
+            @RequestParam(defaultValue = "false") boolean withFavorites) {
         try {
-            return ResponseEntity.ok(publicationService.getAllPublications());
+            // Marcada para un usuario, la página deja de ser igual para todos y no pasa por la caché de JSON
+            if (withFavorites) {
+                CursorPageResponse<?> page = publicationService.getAllPublications(cursor, size, view);
+                publicationService.markFavorites(page.getItems());
+                return ResponseEntity.ok()
+                        .cacheControl(PRIVATE_REVALIDATE)
+                        .body(page);
+            }
+            if (view != null && !view.equalsIgnoreCase("full")) {
+                return ResponseEntity.ok()
+                        .cacheControl(PUBLIC_LIST_CACHE)
+                        .body(publicationService.getAllPublications(cursor, size, view));
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .cacheControl(PUBLIC_LIST_CACHE)
+                    .body(publicationService.getAllPublicationsJson(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
         } catch (Exception e) {
             return ResponseEntity.status(500).body(null);
         }
     }
 
     @GetMapping
-    public ResponseEntity<List<PublicationDefaultDTO>> getPublicationsFilters(
-            @RequestParam(required = false) String department,
-            @RequestParam(required = false) String minPrice,
-            @RequestParam(required = false) String maxPrice,
-            @RequestParam(required = false) String typeName,
-            @RequestParam(required = false) String minSize,
-            @RequestParam(required = false) String maxSize,
-            @RequestParam(required = false) String bedrooms,
-            @RequestParam(required = false) String floors,
-            @RequestParam(required = false) String parking,
-            @RequestParam(required = false) String furnished
-    ) {
-        if (department != null) {
-        return ResponseEntity.ok(publicationService.getPublicationsByDepartment(department));
-        } else if (minPrice != null && maxPrice != null) {
-            BigDecimal BDmaxPrice = new BigDecimal(maxPrice);
-            BigDecimal BDminPrice = new BigDecimal(minPrice);
-            return ResponseEntity.ok(publicationService.getPublicationsByPrice(BDminPrice, BDmaxPrice));
-        } else if (typeName != null) {
-            return ResponseEntity.ok(publicationService.getPublicationsByType(typeName));
-        } else if (minSize != null && maxSize != null) {
-            BigDecimal BDmaxSize = new BigDecimal(maxSize);
-            BigDecimal BDminSize = new BigDecimal(minSize);
-            return ResponseEntity.ok(publicationService.getPublicationsBySize(BDminSize, BDmaxSize));
-        } else if (bedrooms != null) {
-            return ResponseEntity.ok(publicationService.getPublicationsByBedrooms(Integer.parseInt(bedrooms)));
-        } else if (floors != null) {
-            return ResponseEntity.ok(publicationService.getPublicationsByFloors(Integer.parseInt(floors)));
-        } else if (parking != null) {
-            return ResponseEntity.ok(publicationService.getPublicationsByParking(Integer.parseInt(parking)));
-        } else if (furnished != null) {
-            return ResponseEntity.ok(publicationService.getPublicationsByFurnished(Boolean.parseBoolean(furnished)));
-        }else {
+    public ResponseEntity<CursorPageResponse<?>> getPublicationsFilters(
+            @ModelAttribute PublicationSearchDTO filters,
+            @RequestParam(defaultValue = "false") boolean withFavorites) {
+        try {
+            CursorPageResponse<?> page = publicationService.searchPublications(filters);
+            if (withFavorites) {
+                publicationService.markFavorites(page.getItems());
+            }
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(null);
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(null);
+        }
+    }
+
+    @GetMapping("/nearby")
+    public ResponseEntity<List<?>> getNearbyPublications(
+            @ModelAttribute PublicationSearchDTO filters,
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "5") double radiusKm,
+            @RequestParam(defaultValue = "false") boolean withFavorites) {
+        try {
+            List<?> nearby = publicationService.searchNearby(filters, latitude, longitude, radiusKm);
+            if (withFavorites) {
+                publicationService.markFavorites(nearby);
+            }
+            return ResponseEntity.ok(nearby);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(null);
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(null);
+        }
+    }
+
+    @GetMapping("/viewport")
+    public ResponseEntity<CursorPageResponse<?>> getViewportPublications(
+            @ModelAttribute PublicationSearchDTO filters,
+            @RequestParam double minLatitude,
+            @RequestParam double maxLatitude,
+            @RequestParam double minLongitude,
+            @RequestParam double maxLongitude,
+            @RequestParam(defaultValue = "false") boolean withFavorites) {
+        try {
+            CursorPageResponse<?> page = publicationService.searchViewport(filters, minLatitude, maxLatitude,
+                    minLongitude, maxLongitude);
+            if (withFavorites) {
+                publicationService.markFavorites(page.getItems());
+            }
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(null);
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(null);
+        }
+    }
+
+    @GetMapping("/clusters")
+    public ResponseEntity<List<PublicationClusterDTO>> getPublicationClusters(
+            @ModelAttribute PublicationSearchDTO filters,
+            @RequestParam int zoom,
+            @RequestParam double minLatitude,
+            @RequestParam double maxLatitude,
+            @RequestParam double minLongitude,
+            @RequestParam double maxLongitude) {
+        try {
+            return ResponseEntity.ok(publicationService.getClusters(filters, zoom, minLatitude, maxLatitude, minLongitude, maxLongitude));
+        } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(null);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(null);
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(null);
+        }
+    }
+
+    @GetMapping("/facets")
+    public ResponseEntity<PublicationFacetCountsDTO> getPublicationFacets(@ModelAttribute PublicationSearchDTO filters) {
+        try {
+            return ResponseEntity.ok(publicationService.getFacetCounts(filters));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(null);
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(null);
         }
     }
 
+    // Volcado completo de publicaciones activas en NDJSON, escrito a medida que se lee de la base de datos
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportPublications(@RequestParam(defaultValue = "false") boolean gzip) {
+        StreamingResponseBody body = output -> {
+            if (gzip) {
+                try (GZIPOutputStream compressed = new GZIPOutputStream(output, EXPORT_BUFFER_SIZE)) {
+                    publicationService.exportActivePublications(compressed);
+                }
+            } else {
+                publicationService.exportActivePublications(output);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"publications.ndjson"
+                        + (gzip ? ".gz" : "") + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     @GetMapping("/userPublications")
-    public ResponseEntity<List<PublicationDefaultDTO>> getUserPublications( @RequestParam("userID") UUID userID) {
+    public ResponseEntity<CursorPageResponse<?>> getUserPublications(
+            @RequestParam("userID") UUID userID,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String view,
+            @RequestParam(defaultValue = "false") boolean withFavorites) {
         try {
-            return ResponseEntity.ok(publicationService.getAllPublicationsbyUserId(userID));
+            CursorPageResponse<?> page = publicationService.getAllPublicationsbyUserId(userID, cursor, size, view);
+            if (withFavorites) {
+                publicationService.markFavorites(page.getItems());
+            }
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(null);
+        }
+    }
+
+    // Hasta 100 ids por petición; la respuesta respeta el orden pedido e informa los que no existen
+    @PostMapping("/batch")
+    public ResponseEntity<PublicationBatchResponse<?>> getPublicationsByIds(@Valid @RequestBody PublicationBatchRequest batchRequest) {
+        try {
+            PublicationBatchResponse<?> batch = publicationService.getPublicationsByIds(batchRequest.getIds(),
+                    batchRequest.getView());
+            if (batchRequest.isWithFavorites()) {
+                publicationService.markFavorites(batch.getItems());
+            }
+            return ResponseEntity.ok(batch);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
         } catch (Exception e) {
             return ResponseEntity.status(500).body(null);
         }
     }
 
     @GetMapping("/publicationById")
-    public ResponseEntity<PublicationDefaultDTO> getPublicationById(@RequestParam("publicationId") String publicationId) {
+    public ResponseEntity<byte[]> getPublicationById(@RequestParam("publicationId") String publicationId,
+                                                     WebRequest request) {
         UUID publication = UUID.fromString(publicationId);
         try {
-            return ResponseEntity.ok(publicationService.getPublicationById(publication));
+            String etag = publicationService.getPublicationETag(publication);
+            if (etag != null && request.checkNotModified(etag)) {
+                return null;
+            }
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .cacheControl(PRIVATE_REVALIDATE);
+            // Sin tarjeta en memoria no hay versión: la respuesta sale sin ETag y el próximo pedido la trae completa
+            if (etag != null) {
+                response.eTag(etag);
+            }
+            return response.body(publicationService.getPublicationByIdJson(publication));
         } catch (Exception e) {
             return ResponseEntity.status(500).body(null);
         }
     }
 
     @GetMapping("/lastPublications")
-    public ResponseEntity<List<PublicationDefaultDTO>> getLastPublications() {
+    public ResponseEntity<byte[]> getLastPublications(WebRequest request) {
         try {
-            return ResponseEntity.ok(publicationService.getLastPublications());
+            String etag = publicationService.getLastPublicationsETag();
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .eTag(etag)
+                    .cacheControl(PUBLIC_LIST_CACHE)
+                    .body(publicationService.getLastPublicationsJson());
         } catch (Exception e) {
             return ResponseEntity.status(500).body(null);
         }
     }
 
     @GetMapping("/mostPopularPublications")
-    public ResponseEntity<List<PublicationDefaultDTO>> getMostPopularPublications() {
+    public ResponseEntity<List<PublicationDefaultDTO>> getMostPopularPublications(WebRequest request) {
         try {
-            return ResponseEntity.ok(publicationService.getTop10MostPopularPublications());
+            String etag = publicationService.getMostPopularPublicationsETag();
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(PUBLIC_LIST_CACHE)
+                    .body(publicationService.getTop10MostPopularPublications());
         } catch (Exception e) {
             return ResponseEntity.status(500).body(null);
         }
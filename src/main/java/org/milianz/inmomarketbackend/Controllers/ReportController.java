@@ -4,11 +4,8 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.milianz.inmomarketbackend.Domain.Entities.DTOs.ReportDefaultDTO;
 import org.milianz.inmomarketbackend.Domain.Entities.DTOs.ReportSaveDTO;
+import org.milianz.inmomarketbackend.Payload.Response.CursorPageResponse;
 import org.milianz.inmomarketbackend.Services.ReportService;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -30,36 +27,39 @@ public class ReportController {
 
     @GetMapping("/my-reports")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<Page<ReportDefaultDTO>> getMyReports(
-            @RequestParam(defaultValue = "0") int page,
+    public ResponseEntity<CursorPageResponse<ReportDefaultDTO>> getMyReports(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int size) {
-
-        Pageable pageable = PageRequest.of(page, size, Sort.by("reportDate").descending());
-        Page<ReportDefaultDTO> reports = reportService.getMyReports(pageable);
-        return ResponseEntity.ok(reports);
+        try {
+            return ResponseEntity.ok(reportService.getMyReports(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
     }
 
     @GetMapping("/admin/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Page<ReportDefaultDTO>> getAllReports(
-            @RequestParam(defaultValue = "0") int page,
+    public ResponseEntity<CursorPageResponse<ReportDefaultDTO>> getAllReports(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int size) {
-
-        Pageable pageable = PageRequest.of(page, size, Sort.by("reportDate").descending());
-        Page<ReportDefaultDTO> reports = reportService.getAllReports(pageable);
-        return ResponseEntity.ok(reports);
+        try {
+            return ResponseEntity.ok(reportService.getAllReports(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
     }
 
     @GetMapping("/publication/{publicationId}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Page<ReportDefaultDTO>> getReportsByPublication(
+    public ResponseEntity<CursorPageResponse<ReportDefaultDTO>> getReportsByPublication(
             @PathVariable UUID publicationId,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int size) {
-
-        Pageable pageable = PageRequest.of(page, size, Sort.by("reportDate").descending());
-        Page<ReportDefaultDTO> reports = reportService.getReportsByPublication(publicationId, pageable);
-        return ResponseEntity.ok(reports);
+        try {
+            return ResponseEntity.ok(reportService.getReportsByPublication(publicationId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
     }
 
     @PutMapping("/admin/{reportId}/resolve")
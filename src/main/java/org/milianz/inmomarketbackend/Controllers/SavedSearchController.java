@@ -0,0 +1,53 @@
+package org.milianz.inmomarketbackend.Controllers;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.SavedSearchDefaultDTO;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.SavedSearchMatchDTO;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.SavedSearchSaveDTO;
+import org.milianz.inmomarketbackend.Payload.Response.CursorPageResponse;
+import org.milianz.inmomarketbackend.Services.SavedSearchService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.UUID;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/saved-searches")
+@RequiredArgsConstructor
+public class SavedSearchController {
+
+    private final SavedSearchService savedSearchService;
+
+    @PostMapping("/create")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<?> createSavedSearch(@Valid @RequestBody SavedSearchSaveDTO savedSearchSaveDTO) {
+        return savedSearchService.createSavedSearch(savedSearchSaveDTO);
+    }
+
+    @GetMapping("/my-searches")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<List<SavedSearchDefaultDTO>> getMySavedSearches() {
+        return ResponseEntity.ok(savedSearchService.getMySavedSearches());
+    }
+
+    @DeleteMapping("/{savedSearchId}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<?> deleteSavedSearch(@PathVariable UUID savedSearchId) {
+        return savedSearchService.deleteSavedSearch(savedSearchId);
+    }
+
+    @GetMapping("/inbox")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<CursorPageResponse<SavedSearchMatchDTO>> getMyInbox(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            return ResponseEntity.ok(savedSearchService.getMyInbox(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+}
@@ -28,6 +28,7 @@ public class FavoriteDefaultDTO {
     private String propertyDescription;
     private BigDecimal propertyPrice;
     private List<String> propertyImageUrls;
+    private List<String> propertyCardImageUrls;
     private List<AvailableTimeDefaultDTO> availableTimes;
     private String ownerName;
     private LocalDateTime savedAt;
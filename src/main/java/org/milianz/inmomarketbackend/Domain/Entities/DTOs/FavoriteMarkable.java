@@ -0,0 +1,11 @@
+package org.milianz.inmomarketbackend.Domain.Entities.DTOs;
+
+import java.util.UUID;
+
+// Elementos de un listado que se pueden marcar como favoritos del usuario que consulta
+public interface FavoriteMarkable {
+
+    UUID getId();
+
+    void setIsFavorite(Boolean isFavorite);
+}
@@ -0,0 +1,19 @@
+package org.milianz.inmomarketbackend.Domain.Entities.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationSuggestionDTO {
+    // DEPARTMENT, MUNICIPALITY o NEIGHBORHOOD
+    private String level;
+    private String label;
+    private String department;
+    private String municipality;
+    private String neighborhood;
+    // Publicaciones activas dentro de la zona, usadas para ordenar las sugerencias
+    private long publicationCount;
+}
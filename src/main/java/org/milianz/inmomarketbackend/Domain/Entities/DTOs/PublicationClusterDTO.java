@@ -0,0 +1,20 @@
+package org.milianz.inmomarketbackend.Domain.Entities.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublicationClusterDTO {
+    private String cell;
+    private long count;
+    private double latitude;
+    private double longitude;
+    private double minPrice;
+    private double maxPrice;
+    // Solo se envía cuando el grupo tiene una única publicación, para dibujarla como pin
+    private UUID publicationId;
+}
@@ -1,5 +1,6 @@
 package org.milianz.inmomarketbackend.Domain.Entities.DTOs;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,7 +11,7 @@ import java.util.UUID;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class PublicationDefaultDTO {
+public class PublicationDefaultDTO implements FavoriteMarkable {
     private UUID id;
     private String propertyAddress;
     private String typeName;
@@ -28,6 +29,12 @@ public class PublicationDefaultDTO {
     private String PropertyDescription;
     private BigDecimal PropertyPrice;
     private List<String> propertyImageUrls;
+    // Mismas imágenes en tamaño de tarjeta, para listados
+    private List<String> propertyCardImageUrls;
     private List<AvailableTimeDefaultDTO> availableTimes;
     private String userName;
+    private long favoriteCount;
+    // Solo cuando se pide marcar los favoritos del usuario autenticado
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean isFavorite;
 }
@@ -0,0 +1,18 @@
+package org.milianz.inmomarketbackend.Domain.Entities.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublicationFacetCountsDTO {
+    private long total;
+    private Map<String, Long> departments;
+    private Map<String, Long> typeNames;
+    private Map<String, Long> bedrooms;
+    private Map<String, Long> furnished;
+    private Map<String, Long> priceBuckets;
+}
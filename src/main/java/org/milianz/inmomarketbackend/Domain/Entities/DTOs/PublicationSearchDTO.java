@@ -0,0 +1,38 @@
+package org.milianz.inmomarketbackend.Domain.Entities.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.milianz.inmomarketbackend.Domain.Entities.Publication;
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublicationSearchDTO {
+    // Texto libre sobre título, dirección y descripción
+    private String q;
+    private String department;
+    private String municipality;
+    private String neighborhood;
+    private String typeName;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private BigDecimal minSize;
+    private BigDecimal maxSize;
+    private BigDecimal minPricePerSquareMeter;
+    private BigDecimal maxPricePerSquareMeter;
+    private Integer bedrooms;
+    private Integer floors;
+    private Integer parking;
+    private Boolean furnished;
+    // Por defecto solo se buscan publicaciones activas
+    private Publication.PublicationStatus status = Publication.PublicationStatus.ACTIVE;
+    // newest, oldest, price_asc, price_desc, size_asc, size_desc
+    private String sort;
+    private Integer limit;
+    // Cursor opaco devuelto en la página anterior
+    private String cursor;
+    // full (por defecto) o summary
+    private String view;
+}
@@ -0,0 +1,40 @@
+package org.milianz.inmomarketbackend.Domain.Entities.DTOs;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Vista resumida para listados: sin descripción, horarios ni la lista completa de imágenes
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublicationSummaryDTO implements FavoriteMarkable {
+    private UUID id;
+    private String propertyTitle;
+    private BigDecimal propertyPrice;
+    private BigDecimal propertySize;
+    private String typeName;
+    private String department;
+    private String municipality;
+    private String neighborhood;
+    private LocalDateTime createdAt;
+    // Primera imagen subida, en tamaño de tarjeta; null si la publicación no tiene imágenes
+    private String coverImageUrl;
+    private String coverThumbnailUrl;
+    private long favoriteCount;
+    // Solo cuando se pide marcar los favoritos del usuario autenticado
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean isFavorite;
+
+    // Para la proyección de la consulta; portadas y conteo se completan después
+    public PublicationSummaryDTO(UUID id, String propertyTitle, BigDecimal propertyPrice, BigDecimal propertySize,
+                                 String typeName, String department, String municipality, String neighborhood,
+                                 LocalDateTime createdAt) {
+        this(id, propertyTitle, propertyPrice, propertySize, typeName, department, municipality, neighborhood,
+                createdAt, null, null, 0, null);
+    }
+}
@@ -0,0 +1,29 @@
+package org.milianz.inmomarketbackend.Domain.Entities.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SavedSearchDefaultDTO {
+    private UUID id;
+    private String name;
+    private String department;
+    private String municipality;
+    private String neighborhood;
+    private String typeName;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private BigDecimal minSize;
+    private BigDecimal maxSize;
+    private Integer bedrooms;
+    private Integer floors;
+    private Integer parking;
+    private Boolean furnished;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,21 @@
+package org.milianz.inmomarketbackend.Domain.Entities.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SavedSearchMatchDTO {
+    private UUID id;
+    private UUID savedSearchId;
+    private String savedSearchName;
+    private UUID publicationId;
+    private String propertyTitle;
+    private BigDecimal propertyPrice;
+    private LocalDateTime matchedAt;
+}
@@ -0,0 +1,31 @@
+package org.milianz.inmomarketbackend.Domain.Entities.DTOs;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SavedSearchSaveDTO {
+
+    @NotBlank(message = "El nombre de la búsqueda es obligatorio")
+    @Size(max = 100, message = "El nombre no puede exceder 100 caracteres")
+    private String name;
+
+    private String department;
+    private String municipality;
+    private String neighborhood;
+    private String typeName;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private BigDecimal minSize;
+    private BigDecimal maxSize;
+    private Integer bedrooms;
+    private Integer floors;
+    private Integer parking;
+    private Boolean furnished;
+}
@@ -15,7 +15,9 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "favorites")
+@Table(name = "favorites", indexes = {
+        @Index(name = "idx_favorites_user_saved", columnList = "user_id, saved_at, publication_id")
+})
 public class Favorite {
 
     @EmbeddedId
@@ -17,6 +17,9 @@ import java.util.UUID;
 @Entity
 @Table(name = "locations", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"neighborhood", "municipality", "department"})
+}, indexes = {
+        @Index(name = "idx_locations_department", columnList = "department"),
+        @Index(name = "idx_locations_municipality", columnList = "municipality")
 })
 public class Location {
 
@@ -33,10 +33,26 @@ public class PropertyImage {
     @Column(name = "image_url")
     private String imageUrl;
 
+    // Versiones reducidas para listados y miniaturas; null en imágenes subidas antes de generarlas
+    // o cuyo formato no se pudo procesar
+    @Column(name = "card_url")
+    private String cardUrl;
+
+    @Column(name = "thumbnail_url")
+    private String thumbnailUrl;
+
     @Column(name = "is_main")
     private Boolean isMain;
 
     @CreationTimestamp
     @Column(name = "upload_date", updatable = false)
     private LocalDateTime uploadDate;
+
+    public String cardOrOriginalUrl() {
+        return cardUrl != null ? cardUrl : imageUrl;
+    }
+
+    public String thumbnailOrOriginalUrl() {
+        return thumbnailUrl != null ? thumbnailUrl : imageUrl;
+    }
 }
\ No newline at end of file
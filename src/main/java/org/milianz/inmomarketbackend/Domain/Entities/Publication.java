@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.annotations.UuidGenerator;
@@ -19,7 +20,14 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "publications")
+@Table(name = "publications", indexes = {
+        @Index(name = "idx_publications_status_created", columnList = "status, created_at, publication_id"),
+        @Index(name = "idx_publications_status_price", columnList = "status, property_price"),
+        @Index(name = "idx_publications_status_size", columnList = "status, property_size"),
+        @Index(name = "idx_publications_location", columnList = "location_id"),
+        @Index(name = "idx_publications_property_type", columnList = "property_type_id"),
+        @Index(name = "idx_publications_user", columnList = "user_id, created_at, publication_id")
+})
 public class Publication {
 
     @Id
@@ -98,10 +106,19 @@ public class Publication {
     @Enumerated(EnumType.STRING)
     private PublicationStatus status;
 
+    // Motivo por el que la creación asíncrona no subió todas las imágenes; null si terminó bien
+    @Column(name = "processing_error")
+    private String processingError;
+
+    // En listas, las imágenes y horarios de toda la página se cargan en una consulta por colección
+    // En orden de subida: la primera es la portada
     @OneToMany(mappedBy = "publication", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
+    @OrderBy("uploadDate ASC")
     private List<PropertyImage> propertyImages;
 
     @OneToMany(mappedBy = "publication", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     private List<AvailableTime> availableTimes;
 
     @OneToMany(mappedBy = "publication", cascade = CascadeType.ALL)
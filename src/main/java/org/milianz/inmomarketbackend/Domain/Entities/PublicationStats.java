@@ -0,0 +1,37 @@
+package org.milianz.inmomarketbackend.Domain.Entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Estadísticas agregadas por publicación, escritas en lote desde memoria
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "publication_stats")
+public class PublicationStats {
+
+    @Id
+    @Column(name = "publication_id")
+    private UUID publicationId;
+
+    // Puntaje de tendencia ya decaído hasta trendingUpdatedAt
+    @Column(name = "trending_score", nullable = false)
+    private double trendingScore;
+
+    @Column(name = "trending_updated_at")
+    private LocalDateTime trendingUpdatedAt;
+
+    @Column(name = "favorite_count", nullable = false)
+    private long favoriteCount;
+
+    // Con el id asignado a mano, la versión nula es lo que marca una fila nueva al guardar
+    @Version
+    private Long version;
+}
@@ -16,7 +16,11 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "reports")
+@Table(name = "reports", indexes = {
+        @Index(name = "idx_reports_reporter_date", columnList = "reporter_user_id, report_date, report_id"),
+        @Index(name = "idx_reports_status_date", columnList = "status, report_date, report_id"),
+        @Index(name = "idx_reports_publication_date", columnList = "publication_id, report_date, report_id")
+})
 public class Report {
 
     @Id
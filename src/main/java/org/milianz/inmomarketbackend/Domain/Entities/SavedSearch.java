@@ -0,0 +1,70 @@
+package org.milianz.inmomarketbackend.Domain.Entities;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UuidGenerator;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "saved_searches", indexes = {
+        @Index(name = "idx_saved_searches_user", columnList = "user_id")
+})
+public class SavedSearch {
+
+    @Id
+    @GeneratedValue
+    @UuidGenerator
+    @Column(name = "saved_search_id")
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @NotBlank(message = "El nombre de la búsqueda es obligatorio")
+    private String name;
+
+    private String department;
+
+    private String municipality;
+
+    private String neighborhood;
+
+    @Column(name = "type_name")
+    private String typeName;
+
+    @Column(name = "min_price")
+    private BigDecimal minPrice;
+
+    @Column(name = "max_price")
+    private BigDecimal maxPrice;
+
+    @Column(name = "min_size")
+    private BigDecimal minSize;
+
+    @Column(name = "max_size")
+    private BigDecimal maxSize;
+
+    private Integer bedrooms;
+
+    private Integer floors;
+
+    private Integer parking;
+
+    private Boolean furnished;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,44 @@
+package org.milianz.inmomarketbackend.Domain.Entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UuidGenerator;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Bandeja de entrada: publicaciones nuevas o reactivadas que cumplen alguna búsqueda guardada del usuario
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "saved_search_matches", indexes = {
+        @Index(name = "idx_saved_search_matches_user_date", columnList = "user_id, matched_at, match_id"),
+        @Index(name = "idx_saved_search_matches_search", columnList = "saved_search_id")
+})
+public class SavedSearchMatch {
+
+    @Id
+    @GeneratedValue
+    @UuidGenerator
+    @Column(name = "match_id")
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "saved_search_id", nullable = false)
+    private SavedSearch savedSearch;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "publication_id", nullable = false)
+    private Publication publication;
+
+    @Column(name = "matched_at", nullable = false)
+    private LocalDateTime matchedAt;
+}
@@ -0,0 +1,44 @@
+package org.milianz.inmomarketbackend.Domain.Repositories;
+
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+import java.util.UUID;
+
+// Condiciones reutilizables para paginar por clave (valor de orden + id) en lugar de por offset
+public final class KeysetSpecifications {
+
+    private KeysetSpecifications() {
+    }
+
+    public static <T> Specification<T> equalTo(String attribute, Object value) {
+        return (root, query, cb) -> cb.equal(path(root, attribute), value);
+    }
+
+    // Filas que van después de (value, id) en el orden dado, con el id como desempate
+    public static <T, Y extends Comparable<? super Y>> Specification<T> after(
+            String sortAttribute, Y value, String idAttribute, UUID id, boolean ascending) {
+        return (root, query, cb) -> {
+            Path<Y> sortPath = path(root, sortAttribute);
+            Path<UUID> idPath = path(root, idAttribute);
+            if (ascending) {
+                return cb.or(
+                        cb.greaterThan(sortPath, value),
+                        cb.and(cb.equal(sortPath, value), cb.greaterThan(idPath, id)));
+            }
+            return cb.or(
+                    cb.lessThan(sortPath, value),
+                    cb.and(cb.equal(sortPath, value), cb.lessThan(idPath, id)));
+        };
+    }
+
+    private static <Y> Path<Y> path(Root<?> root, String attribute) {
+        Path<?> path = root;
+        for (String part : attribute.split("\\.")) {
+            path = path.get(part);
+        }
+        @SuppressWarnings("unchecked")
+        Path<Y> typed = (Path<Y>) path;
+        return typed;
+    }
+}
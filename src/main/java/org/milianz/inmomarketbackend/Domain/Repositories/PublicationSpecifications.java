@@ -0,0 +1,135 @@
+package org.milianz.inmomarketbackend.Domain.Repositories;
+
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationSearchDTO;
+import org.milianz.inmomarketbackend.Domain.Entities.Publication;
+import org.milianz.inmomarketbackend.Utils.CursorCodec;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public final class PublicationSpecifications {
+
+    // Orden por defecto cuando el cliente no envía uno
+    public static final String NEWEST = "newest";
+    public static final String OLDEST = "oldest";
+
+    private PublicationSpecifications() {
+    }
+
+    // Combina todos los filtros presentes en una sola consulta
+    public static Specification<Publication> matches(PublicationSearchDTO filters) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (filters.getStatus() != null) {
+                predicates.add(cb.equal(root.get("status"), filters.getStatus()));
+            }
+            if (filters.getDepartment() != null) {
+                predicates.add(cb.equal(root.get("location").get("department"), filters.getDepartment()));
+            }
+            if (filters.getMunicipality() != null) {
+                predicates.add(cb.equal(root.get("location").get("municipality"), filters.getMunicipality()));
+            }
+            if (filters.getNeighborhood() != null) {
+                predicates.add(cb.equal(root.get("location").get("neighborhood"), filters.getNeighborhood()));
+            }
+            if (filters.getTypeName() != null) {
+                predicates.add(cb.equal(root.get("propertyType").get("typeName"), filters.getTypeName()));
+            }
+            if (filters.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("propertyPrice"), filters.getMinPrice()));
+            }
+            if (filters.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("propertyPrice"), filters.getMaxPrice()));
+            }
+            if (filters.getMinSize() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("propertySize"), filters.getMinSize()));
+            }
+            if (filters.getMaxSize() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("propertySize"), filters.getMaxSize()));
+            }
+            if (filters.getMinPricePerSquareMeter() != null || filters.getMaxPricePerSquareMeter() != null) {
+                Expression<Number> pricePerSquareMeter = cb.quot(
+                        root.<BigDecimal>get("propertyPrice"), root.<BigDecimal>get("propertySize"));
+                predicates.add(cb.gt(root.<BigDecimal>get("propertySize"), BigDecimal.ZERO));
+                if (filters.getMinPricePerSquareMeter() != null) {
+                    predicates.add(cb.ge(pricePerSquareMeter, filters.getMinPricePerSquareMeter()));
+                }
+                if (filters.getMaxPricePerSquareMeter() != null) {
+                    predicates.add(cb.le(pricePerSquareMeter, filters.getMaxPricePerSquareMeter()));
+                }
+            }
+            if (filters.getBedrooms() != null) {
+                predicates.add(cb.equal(root.get("propertyBedrooms"), filters.getBedrooms()));
+            }
+            if (filters.getFloors() != null) {
+                predicates.add(cb.equal(root.get("propertyFloors"), filters.getFloors()));
+            }
+            if (filters.getParking() != null) {
+                predicates.add(cb.equal(root.get("propertyParking"), filters.getParking()));
+            }
+            if (filters.getFurnished() != null) {
+                predicates.add(cb.equal(root.get("propertyFurnished"), filters.getFurnished()));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    public static String normalizeSort(String sort) {
+        String normalized = sort == null ? NEWEST : sort.toLowerCase();
+        if (fieldOf(normalized) == null) {
+            throw new IllegalArgumentException("Orden no válido: " + sort);
+        }
+        return normalized;
+    }
+
+    // El id se agrega siempre como desempate para que el orden sea estable
+    public static Sort sortOf(String sort) {
+        String normalized = normalizeSort(sort);
+        Sort.Direction direction = isAscending(normalized) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return Sort.by(new Sort.Order(direction, fieldOf(normalized)), new Sort.Order(direction, "id"));
+    }
+
+    // Continúa después de la última fila de la página anterior según el orden elegido
+    public static Specification<Publication> after(String sort, String value, UUID id) {
+        String normalized = normalizeSort(sort);
+        String field = fieldOf(normalized);
+        boolean ascending = isAscending(normalized);
+        if (field.equals("createdAt")) {
+            return KeysetSpecifications.after(field, CursorCodec.timestamp(value), "id", id, ascending);
+        }
+        return KeysetSpecifications.after(field, new BigDecimal(value), "id", id, ascending);
+    }
+
+    public static String cursorValue(String sort, Publication publication) {
+        return cursorValue(sort, publication.getCreatedAt(), publication.getPropertyPrice(), publication.getPropertySize());
+    }
+
+    public static String cursorValue(String sort, LocalDateTime createdAt, BigDecimal price, BigDecimal size) {
+        return switch (fieldOf(normalizeSort(sort))) {
+            case "propertyPrice" -> price.toPlainString();
+            case "propertySize" -> size.toPlainString();
+            default -> createdAt.toString();
+        };
+    }
+
+    public static boolean isAscending(String sort) {
+        return sort.equals(OLDEST) || sort.endsWith("_asc");
+    }
+
+    private static String fieldOf(String sort) {
+        return switch (sort) {
+            case NEWEST, OLDEST -> "createdAt";
+            case "price_asc", "price_desc" -> "propertyPrice";
+            case "size_asc", "size_desc" -> "propertySize";
+            default -> null;
+        };
+    }
+}
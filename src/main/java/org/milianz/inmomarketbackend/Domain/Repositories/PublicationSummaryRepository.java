@@ -0,0 +1,12 @@
+package org.milianz.inmomarketbackend.Domain.Repositories;
+
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationSummaryDTO;
+import org.milianz.inmomarketbackend.Domain.Entities.Publication;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import java.util.List;
+
+// Consultas que seleccionan solo las columnas del resumen, sin la descripción ni las colecciones
+public interface PublicationSummaryRepository {
+    List<PublicationSummaryDTO> findSummaries(Specification<Publication> spec, Sort sort, int limit);
+}
@@ -0,0 +1,54 @@
+package org.milianz.inmomarketbackend.Domain.Repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationSummaryDTO;
+import org.milianz.inmomarketbackend.Domain.Entities.Location;
+import org.milianz.inmomarketbackend.Domain.Entities.PropertyType;
+import org.milianz.inmomarketbackend.Domain.Entities.Publication;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import java.util.List;
+
+public class PublicationSummaryRepositoryImpl implements PublicationSummaryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // La portada se completa aparte con una sola consulta para toda la página, y el conteo desde memoria
+    @Override
+    public List<PublicationSummaryDTO> findSummaries(Specification<Publication> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PublicationSummaryDTO> query = cb.createQuery(PublicationSummaryDTO.class);
+        Root<Publication> root = query.from(Publication.class);
+        Join<Publication, PropertyType> propertyType = root.join("propertyType");
+        Join<Publication, Location> location = root.join("location");
+
+        query.select(cb.construct(PublicationSummaryDTO.class,
+                root.get("id"),
+                root.get("propertyTitle"),
+                root.get("propertyPrice"),
+                root.get("propertySize"),
+                propertyType.get("typeName"),
+                location.get("department"),
+                location.get("municipality"),
+                location.get("neighborhood"),
+                root.get("createdAt")));
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -1,8 +1,10 @@
 package org.milianz.inmomarketbackend.Domain.Repositories;
 
 import org.milianz.inmomarketbackend.Domain.Entities.AvailableTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 public interface iAvailableTimeRepository extends iGenericRepository<AvailableTime, UUID>{
-
+    List<AvailableTime> findByPublication_IdIn(Collection<UUID> publicationIds);
 }
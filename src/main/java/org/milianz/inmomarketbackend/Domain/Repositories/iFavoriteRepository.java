@@ -1,20 +1,19 @@
 package org.milianz.inmomarketbackend.Domain.Repositories;
 
 import org.milianz.inmomarketbackend.Domain.Entities.Favorite;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface iFavoriteRepository extends iGenericRepository<Favorite, Favorite.FavoriteId> {
+public interface iFavoriteRepository extends iGenericRepository<Favorite, Favorite.FavoriteId>, JpaSpecificationExecutor<Favorite> {
 
     boolean existsByUserIdAndPublicationId(UUID userId, UUID publicationId);
 
     Optional<Favorite> findByUserIdAndPublicationId(UUID userId, UUID publicationId);
 
-    Page<Favorite> findByUserIdOrderBySavedAtDesc(UUID userId, Pageable pageable);
-
     List<Favorite> findByUserIdOrderBySavedAtDesc(UUID userId);
 
     long countByUserId(UUID userId);
@@ -23,10 +22,14 @@ public interface iFavoriteRepository extends iGenericRepository<Favorite, Favori
 
     void deleteByUserIdAndPublicationId(UUID userId, UUID publicationId);
 
-    Page<Favorite> findByUserIdAndPublication_StatusOrderBySavedAtDesc(
-            UUID userId,
-            org.milianz.inmomarketbackend.Domain.Entities.Publication.PublicationStatus status,
-            Pageable pageable);
+    // Filas [publicationId, savedAt] para reconstruir el ranking de tendencia
+    @Query("select f.id.publicationId, f.savedAt from Favorite f")
+    List<Object[]> findAllSavedAt();
+
+    // Filas [publicationId, cantidad] para recalcular los contadores al arrancar
+    @Query("select f.id.publicationId, count(f) from Favorite f group by f.id.publicationId")
+    List<Object[]> countGroupedByPublication();
 
-    List<Favorite> findTop10ByOrderByPublicationIdDesc();
+    @Query("select f.id.publicationId from Favorite f where f.id.userId = :userId")
+    List<UUID> findPublicationIdsByUserId(@Param("userId") UUID userId);
 }
\ No newline at end of file
@@ -1,7 +1,28 @@
 package org.milianz.inmomarketbackend.Domain.Repositories;
 
 import org.milianz.inmomarketbackend.Domain.Entities.PropertyImage;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 public interface iPropertyImageRepository extends iGenericRepository<PropertyImage, UUID> {
+    List<PropertyImage> findByPublication_IdIn(Collection<UUID> publicationIds);
+
+    boolean existsByImageUrlOrCardUrlOrThumbnailUrl(String imageUrl, String cardUrl, String thumbnailUrl);
+
+    // Las versiones reducidas llegan después de guardar la imagen
+    @Modifying
+    @Query("update PropertyImage i set i.cardUrl = :cardUrl, i.thumbnailUrl = :thumbnailUrl where i.id = :id")
+    int updateRenditions(@Param("id") UUID id, @Param("cardUrl") String cardUrl,
+                         @Param("thumbnailUrl") String thumbnailUrl);
+
+    // Solo la primera imagen subida de cada publicación, como filas [publicationId, tarjeta, miniatura],
+    // con la original cuando falta alguna versión
+    @Query("select i.publication.id, coalesce(i.cardUrl, i.imageUrl), coalesce(i.thumbnailUrl, i.imageUrl) "
+            + "from PropertyImage i where i.publication.id in :publicationIds "
+            + "and i.uploadDate = (select min(o.uploadDate) from PropertyImage o where o.publication = i.publication)")
+    List<Object[]> findCoverImages(@Param("publicationIds") Collection<UUID> publicationIds);
 }
@@ -1,23 +1,49 @@
 package org.milianz.inmomarketbackend.Domain.Repositories;
 
-import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationDefaultDTO;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.milianz.inmomarketbackend.Domain.Entities.Publication;
-import java.math.BigDecimal;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface iPublicationRepository extends iGenericRepository<Publication, UUID>{
-    List<Publication> findByLocation_Department(String locationDepartment);
-    List<Publication> findByPropertyPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
-    List<Publication> findByPropertyType_TypeName(String propertyTypeTypeName);
-    List<Publication> findByPropertySizeBetween(BigDecimal minSize, BigDecimal maxSize);
-    List<Publication> findByPropertyBedrooms(Integer propertyBedrooms);
-    List<Publication> findByPropertyFloors(Integer propertyFloors);
-    List<Publication> findByPropertyParking(Integer propertyParking);
-    List<Publication> findByPropertyFurnished(Boolean propertyFurnished);
+public interface iPublicationRepository extends iGenericRepository<Publication, UUID>, JpaSpecificationExecutor<Publication>,
+        PublicationSummaryRepository {
+    @EntityGraph(attributePaths = {"location", "propertyType", "user"})
     List<Publication> findByStatus(Publication.PublicationStatus status);
-    List<Publication> findByUser_Id(UUID userId);
+
     Optional<Publication> findById(UUID id);
-    List<Publication> findTop10ByOrderByCreatedAtDesc();
-}
\ No newline at end of file
+
+    @EntityGraph(attributePaths = {"location", "propertyType", "user"})
+    List<Publication> findTop10ByStatusOrderByCreatedAtDesc(Publication.PublicationStatus status);
+
+    // Para armar DTOs: ubicación, tipo y dueño vienen en la misma consulta
+    @EntityGraph(attributePaths = {"location", "propertyType", "user"})
+    Optional<Publication> findWithDetailsById(UUID id);
+
+    @EntityGraph(attributePaths = {"location", "propertyType", "user"})
+    List<Publication> findByIdIn(Collection<UUID> ids);
+
+    @Query("select p.id from Publication p where p.status = :status")
+    List<UUID> findIdsByStatus(@Param("status") Publication.PublicationStatus status);
+
+    // Carga inicial de los índices en memoria, en orden de creación
+    @Query("select p from Publication p join fetch p.location join fetch p.propertyType order by p.createdAt, p.id")
+    List<Publication> findAllForIndex();
+
+    // Recorre las publicaciones con un cursor del servidor en lugar de traerlas todas a memoria
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Publication p join fetch p.location join fetch p.propertyType join fetch p.user "
+            + "where p.status = :status order by p.createdAt, p.id")
+    Stream<Publication> streamByStatus(@Param("status") Publication.PublicationStatus status);
+}
@@ -0,0 +1,7 @@
+package org.milianz.inmomarketbackend.Domain.Repositories;
+
+import org.milianz.inmomarketbackend.Domain.Entities.PublicationStats;
+import java.util.UUID;
+
+public interface iPublicationStatsRepository extends iGenericRepository<PublicationStats, UUID> {
+}
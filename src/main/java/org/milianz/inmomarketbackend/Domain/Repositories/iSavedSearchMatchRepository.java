@@ -0,0 +1,15 @@
+package org.milianz.inmomarketbackend.Domain.Repositories;
+
+import org.milianz.inmomarketbackend.Domain.Entities.SavedSearchMatch;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.UUID;
+
+public interface iSavedSearchMatchRepository extends iGenericRepository<SavedSearchMatch, UUID>, JpaSpecificationExecutor<SavedSearchMatch> {
+
+    @Modifying
+    @Query("delete from SavedSearchMatch m where m.savedSearch.id = :savedSearchId")
+    void deleteBySavedSearchId(@Param("savedSearchId") UUID savedSearchId);
+}
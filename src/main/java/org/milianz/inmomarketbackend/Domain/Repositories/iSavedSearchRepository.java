@@ -0,0 +1,10 @@
+package org.milianz.inmomarketbackend.Domain.Repositories;
+
+import org.milianz.inmomarketbackend.Domain.Entities.SavedSearch;
+import java.util.List;
+import java.util.UUID;
+
+public interface iSavedSearchRepository extends iGenericRepository<SavedSearch, UUID> {
+    List<SavedSearch> findByUserIdOrderByCreatedAtDesc(UUID userId);
+    long countByUserId(UUID userId);
+}
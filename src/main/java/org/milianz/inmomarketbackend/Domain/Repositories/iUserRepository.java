@@ -8,4 +8,5 @@ public interface iUserRepository extends iGenericRepository<User, UUID> {
 
     Optional<User> findByEmail(String email);
     Boolean existsByEmail(String email);
+    boolean existsByProfilePicture(String profilePicture);
 }
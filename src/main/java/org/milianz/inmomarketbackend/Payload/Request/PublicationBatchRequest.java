@@ -0,0 +1,21 @@
+package org.milianz.inmomarketbackend.Payload.Request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class PublicationBatchRequest {
+    @NotEmpty
+    @Size(max = 100)
+    private List<@NotNull UUID> ids;
+
+    // full (por defecto) o summary
+    private String view;
+
+    // Marca isFavorite en cada publicación según el usuario autenticado
+    private boolean withFavorites;
+}
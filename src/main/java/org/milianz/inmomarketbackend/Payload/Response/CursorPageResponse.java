@@ -0,0 +1,24 @@
+package org.milianz.inmomarketbackend.Payload.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+    private List<T> items;
+    // null cuando no hay más resultados
+    private String nextCursor;
+
+    // Las consultas piden size + 1 filas: si sobra una, hay otra página y el cursor apunta a la última entregada
+    public static <E, T> CursorPageResponse<T> of(List<E> rows, int size, Function<E, T> mapper,
+                                                  Function<E, String> cursorOf) {
+        List<E> page = rows.size() > size ? rows.subList(0, size) : rows;
+        String nextCursor = rows.size() > size ? cursorOf.apply(page.get(page.size() - 1)) : null;
+        return new CursorPageResponse<>(page.stream().map(mapper).toList(), nextCursor);
+    }
+}
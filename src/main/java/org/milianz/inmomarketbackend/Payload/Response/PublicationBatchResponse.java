@@ -0,0 +1,17 @@
+package org.milianz.inmomarketbackend.Payload.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublicationBatchResponse<T> {
+    // En el mismo orden en que se pidieron los ids
+    private List<T> items;
+    // Ids que no corresponden a ninguna publicación
+    private List<UUID> missingIds;
+}
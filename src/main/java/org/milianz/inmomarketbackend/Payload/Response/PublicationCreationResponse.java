@@ -0,0 +1,19 @@
+package org.milianz.inmomarketbackend.Payload.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.milianz.inmomarketbackend.Domain.Entities.Publication;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublicationCreationResponse {
+    private UUID publicationId;
+    // PENDING mientras se suben las imágenes; ACTIVE o INACTIVE al terminar
+    private Publication.PublicationStatus status;
+    // Imágenes que aún esperan subirse
+    private int pendingImages;
+    private String processingError;
+}
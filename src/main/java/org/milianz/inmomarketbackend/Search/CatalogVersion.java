@@ -0,0 +1,28 @@
+package org.milianz.inmomarketbackend.Search;
+
+import org.springframework.stereotype.Component;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Versiones agregadas del catálogo para las ETags de los listados: comparar dos números en lugar de cargar filas.
+// Los contadores viven en memoria, así que se les antepone el instante de arranque para que una ETag
+// emitida antes de reiniciar nunca coincida con una nueva.
+@Component
+public class CatalogVersion {
+
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong publications = new AtomicLong();
+
+    // Se llama después de confirmar, cuando el cambio ya es visible para las lecturas
+    public void publicationsChanged() {
+        publications.incrementAndGet();
+    }
+
+    public String publicationsTag() {
+        return bootId + "." + publications.get();
+    }
+
+    // Cada tarjeta rearmada recibe una versión nueva, pero la numeración vuelve a empezar al reiniciar
+    public String cardTag(PublicationCard card) {
+        return bootId + "." + card.getVersion();
+    }
+}
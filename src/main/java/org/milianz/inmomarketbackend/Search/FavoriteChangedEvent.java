@@ -0,0 +1,18 @@
+package org.milianz.inmomarketbackend.Search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Se publica cuando un usuario agrega o quita una publicación de sus favoritos
+@Getter
+@AllArgsConstructor
+public class FavoriteChangedEvent {
+    private final UUID userId;
+    private final UUID publicationId;
+    // true si se agregó, false si se quitó
+    private final boolean added;
+    // Fecha en que se guardó el favorito, también cuando se quita, para descontar su peso ya decaído
+    private final LocalDateTime savedAt;
+}
@@ -0,0 +1,124 @@
+package org.milianz.inmomarketbackend.Search;
+
+import lombok.RequiredArgsConstructor;
+import org.milianz.inmomarketbackend.Domain.Entities.PublicationStats;
+import org.milianz.inmomarketbackend.Domain.Repositories.iFavoriteRepository;
+import org.milianz.inmomarketbackend.Domain.Repositories.iPublicationStatsRepository;
+import org.milianz.inmomarketbackend.Utils.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Cantidad de favoritos por publicación, en memoria. Cada contador es un LongAdder, que reparte las sumas
+// concurrentes en celdas separadas, así que varios usuarios guardando la misma publicación no compiten.
+// Los totales se escriben en publication_stats en lotes y al arrancar se recalculan desde los favoritos.
+@Component
+@RequiredArgsConstructor
+public class FavoriteCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(FavoriteCounters.class);
+
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    private final iFavoriteRepository favoriteRepository;
+    private final iPublicationStatsRepository publicationStatsRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<UUID, LongAdder> counts = new ConcurrentHashMap<>();
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+
+    // Antes que las tarjetas, que copian el conteo al armarse
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional(readOnly = true)
+    public void load() {
+        Map<UUID, Long> actual = new HashMap<>();
+        for (Object[] row : favoriteRepository.countGroupedByPublication()) {
+            actual.put((UUID) row[0], (Long) row[1]);
+        }
+
+        // La tabla de favoritos manda: lo guardado que no coincida se corrige en la próxima escritura
+        Set<UUID> stored = new HashSet<>();
+        for (PublicationStats row : publicationStatsRepository.findAll()) {
+            stored.add(row.getPublicationId());
+            if (row.getFavoriteCount() != actual.getOrDefault(row.getPublicationId(), 0L)) {
+                dirty.add(row.getPublicationId());
+            }
+        }
+        actual.forEach((publicationId, count) -> {
+            LongAdder adder = new LongAdder();
+            adder.add(count);
+            counts.put(publicationId, adder);
+            if (!stored.contains(publicationId)) {
+                dirty.add(publicationId);
+            }
+        });
+
+        logger.info("Favorite counters loaded for {} publications, {} to reconcile", counts.size(), dirty.size());
+    }
+
+    // Antes que los demás oyentes, para que al confirmar lean el conteo ya actualizado
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onFavoriteChanged(FavoriteChangedEvent event) {
+        long delta = event.isAdded() ? 1 : -1;
+        TransactionHooks.afterCommit(() -> {
+            counts.computeIfAbsent(event.getPublicationId(), id -> new LongAdder()).add(delta);
+            dirty.add(event.getPublicationId());
+        });
+    }
+
+    public long count(UUID publicationId) {
+        LongAdder adder = counts.get(publicationId);
+        return adder != null ? Math.max(0, adder.sum()) : 0;
+    }
+
+    // Cada lote va en su propia transacción; si falla, sus ids vuelven a quedar pendientes para la próxima pasada
+    @Scheduled(fixedDelay = 30000)
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<UUID> ids = new ArrayList<>(dirty);
+        dirty.removeAll(ids);
+
+        for (int from = 0; from < ids.size(); from += FLUSH_BATCH_SIZE) {
+            List<UUID> batch = ids.subList(from, Math.min(from + FLUSH_BATCH_SIZE, ids.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> save(batch));
+            } catch (RuntimeException e) {
+                dirty.addAll(batch);
+                logger.warn("Favorite counters flush of {} publications failed, will retry: {}", batch.size(), e.toString());
+            }
+        }
+    }
+
+    private void save(List<UUID> batch) {
+        Map<UUID, PublicationStats> existing = new HashMap<>();
+        publicationStatsRepository.findAllById(batch).forEach(row -> existing.put(row.getPublicationId(), row));
+        List<PublicationStats> rows = new ArrayList<>(batch.size());
+        for (UUID publicationId : batch) {
+            PublicationStats row = existing.getOrDefault(publicationId,
+                    PublicationStats.builder().publicationId(publicationId).build());
+            row.setFavoriteCount(count(publicationId));
+            rows.add(row);
+        }
+        publicationStatsRepository.saveAll(rows);
+    }
+}
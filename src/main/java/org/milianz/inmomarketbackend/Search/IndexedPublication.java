@@ -0,0 +1,61 @@
+package org.milianz.inmomarketbackend.Search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.milianz.inmomarketbackend.Domain.Entities.Location;
+import org.milianz.inmomarketbackend.Domain.Entities.Publication;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Valores de una publicación que leen los índices en memoria, copiados mientras la sesión sigue abierta.
+// Los índices se actualizan recién al confirmar la transacción, cuando la entidad ya no se puede recorrer.
+@Getter
+@AllArgsConstructor
+public class IndexedPublication {
+
+    private final UUID id;
+    private final Publication.PublicationStatus status;
+    private final UUID locationId;
+    private final String department;
+    private final String municipality;
+    private final String neighborhood;
+    private final String typeName;
+    private final Integer bedrooms;
+    private final Integer floors;
+    private final Integer parking;
+    private final Boolean furnished;
+    private final BigDecimal price;
+    private final BigDecimal size;
+    private final BigDecimal latitude;
+    private final BigDecimal longitude;
+    private final String title;
+    private final String address;
+    private final String description;
+
+    public static IndexedPublication of(Publication publication) {
+        Location location = publication.getLocation();
+        return new IndexedPublication(
+                publication.getId(),
+                publication.getStatus(),
+                location != null ? location.getId() : null,
+                location != null ? location.getDepartment() : null,
+                location != null ? location.getMunicipality() : null,
+                location != null ? location.getNeighborhood() : null,
+                publication.getPropertyType() != null ? publication.getPropertyType().getTypeName() : null,
+                publication.getPropertyBedrooms(),
+                publication.getPropertyFloors(),
+                publication.getPropertyParking(),
+                publication.getPropertyFurnished(),
+                publication.getPropertyPrice(),
+                publication.getPropertySize(),
+                publication.getLatitude(),
+                publication.getLongitude(),
+                publication.getPropertyTitle(),
+                publication.getPropertyAddress(),
+                publication.getPropertyDescription());
+    }
+
+    public boolean isActive() {
+        return status == Publication.PublicationStatus.ACTIVE;
+    }
+}
@@ -0,0 +1,276 @@
+package org.milianz.inmomarketbackend.Search;
+
+import lombok.RequiredArgsConstructor;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.LocationSuggestionDTO;
+import org.milianz.inmomarketbackend.Domain.Entities.Location;
+import org.milianz.inmomarketbackend.Domain.Repositories.iLocationRepository;
+import org.milianz.inmomarketbackend.Utils.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// Trie de prefijos sin tildes sobre departamentos, municipios y barrios para el autocompletado.
+// Cada nodo guarda sus mejores sugerencias por cantidad de publicaciones activas, así que una consulta
+// solo recorre tantos nodos como letras tenga el prefijo.
+@Component
+@RequiredArgsConstructor
+public class LocationSuggestionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocationSuggestionIndex.class);
+
+    public static final int MAX_SUGGESTIONS = 10;
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    public enum Level {
+        DEPARTMENT, MUNICIPALITY, NEIGHBORHOOD
+    }
+
+    private final iLocationRepository locationRepository;
+
+    private final Node root = new Node();
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<String, Integer> entryIds = new HashMap<>();
+    private final Map<UUID, int[]> locationEntries = new HashMap<>();
+    private final Map<UUID, UUID> countedLocations = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready = false;
+
+    // Mayor cantidad de publicaciones primero; a igual cantidad, orden alfabético
+    private final Comparator<Integer> ranking = Comparator
+            .comparingLong((Integer id) -> entries.get(id).weight).reversed()
+            .thenComparing(id -> entries.get(id).label);
+
+    // Lo llama PublicationIndexLoader dentro de su transacción, con la lectura compartida por todos los índices
+    public void load(List<IndexedPublication> publications) {
+        List<Location> locations = locationRepository.findAll();
+
+        lock.writeLock().lock();
+        try {
+            for (Location location : locations) {
+                addLocationLocked(location.getId(), location.getDepartment(), location.getMunicipality(),
+                        location.getNeighborhood(), false);
+            }
+            for (IndexedPublication publication : publications) {
+                if (publication.isActive() && publication.getLocationId() != null) {
+                    addLocationLocked(publication.getLocationId(), publication.getDepartment(),
+                            publication.getMunicipality(), publication.getNeighborhood(), false);
+                    for (int entryId : locationEntries.get(publication.getLocationId())) {
+                        entries.get(entryId).weight++;
+                    }
+                    countedLocations.put(publication.getId(), publication.getLocationId());
+                }
+            }
+            rebuildLocked(root);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        ready = true;
+        logger.info("Location suggestions loaded with {} entries", entries.size());
+    }
+
+    // Ubicación recién creada: se puede sugerir en cuanto se confirma, aunque todavía no tenga publicaciones
+    public void add(Location location) {
+        UUID id = location.getId();
+        String department = location.getDepartment();
+        String municipality = location.getMunicipality();
+        String neighborhood = location.getNeighborhood();
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                addLocationLocked(id, department, municipality, neighborhood, true);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void index(IndexedPublication publication) {
+        UUID current = publication.isActive() ? publication.getLocationId() : null;
+
+        lock.writeLock().lock();
+        try {
+            UUID previous = countedLocations.remove(publication.getId());
+            if (previous != null) {
+                adjustLocked(previous, -1);
+            }
+            if (current != null) {
+                addLocationLocked(current, publication.getDepartment(), publication.getMunicipality(),
+                        publication.getNeighborhood(), true);
+                adjustLocked(current, 1);
+                countedLocations.put(publication.getId(), current);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<LocationSuggestionDTO> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+
+            List<LocationSuggestionDTO> suggestions = new ArrayList<>();
+            for (int i = 0; i < node.top.length && suggestions.size() < limit; i++) {
+                suggestions.add(entries.get(node.top[i]).toDTO());
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addLocationLocked(UUID locationId, String department, String municipality, String neighborhood,
+                                   boolean refresh) {
+        if (locationEntries.containsKey(locationId)) {
+            return;
+        }
+        int departmentEntry = entryLocked(Level.DEPARTMENT, department, null, null, refresh);
+        int municipalityEntry = entryLocked(Level.MUNICIPALITY, department, municipality, null, refresh);
+        int neighborhoodEntry = entryLocked(Level.NEIGHBORHOOD, department, municipality, neighborhood, refresh);
+        locationEntries.put(locationId, new int[]{departmentEntry, municipalityEntry, neighborhoodEntry});
+    }
+
+    // Varios barrios comparten municipio y departamento: cada zona se registra una sola vez
+    private int entryLocked(Level level, String department, String municipality, String neighborhood, boolean refresh) {
+        String identity = level + "|" + department + "|" + municipality + "|" + neighborhood;
+        Integer existing = entryIds.get(identity);
+        if (existing != null) {
+            return existing;
+        }
+
+        int id = entries.size();
+        Entry entry = new Entry(level, department, municipality, neighborhood);
+        entries.add(entry);
+        entryIds.put(identity, id);
+
+        // Se indexa desde el inicio de cada palabra para que "salv" encuentre "San Salvador"
+        String key = normalize(entry.label);
+        for (int start = 0; start < key.length(); start++) {
+            if (start == 0 || key.charAt(start - 1) == ' ') {
+                String suffix = key.substring(start);
+                entry.keys.add(suffix);
+                Node node = root;
+                for (int i = 0; i < suffix.length(); i++) {
+                    node = node.children.computeIfAbsent(suffix.charAt(i), c -> new Node());
+                }
+                node.own.add(id);
+            }
+        }
+        if (refresh) {
+            refreshPathsLocked(entry);
+        }
+        return id;
+    }
+
+    private void adjustLocked(UUID locationId, int delta) {
+        int[] ids = locationEntries.get(locationId);
+        if (ids == null) {
+            return;
+        }
+        for (int entryId : ids) {
+            Entry entry = entries.get(entryId);
+            entry.weight += delta;
+            refreshPathsLocked(entry);
+        }
+    }
+
+    // Solo cambian las mejores sugerencias de los nodos en el camino hacia la entrada, de abajo hacia arriba
+    private void refreshPathsLocked(Entry entry) {
+        for (String key : entry.keys) {
+            List<Node> path = new ArrayList<>(key.length() + 1);
+            Node node = root;
+            path.add(node);
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.get(key.charAt(i));
+                path.add(node);
+            }
+            for (int i = path.size() - 1; i >= 0; i--) {
+                recomputeLocked(path.get(i));
+            }
+        }
+    }
+
+    private void rebuildLocked(Node node) {
+        node.children.values().forEach(this::rebuildLocked);
+        recomputeLocked(node);
+    }
+
+    private void recomputeLocked(Node node) {
+        Set<Integer> candidates = new LinkedHashSet<>(node.own);
+        for (Node child : node.children.values()) {
+            for (int id : child.top) {
+                candidates.add(id);
+            }
+        }
+        node.top = candidates.stream()
+                .sorted(ranking)
+                .limit(MAX_SUGGESTIONS)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return SEPARATORS.matcher(SpanishAnalyzer.fold(text)).replaceAll(" ").trim();
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private final List<Integer> own = new ArrayList<>(1);
+        private int[] top = new int[0];
+    }
+
+    private static class Entry {
+        private final Level level;
+        private final String department;
+        private final String municipality;
+        private final String neighborhood;
+        private final String label;
+        private final List<String> keys = new ArrayList<>(2);
+        private long weight;
+
+        private Entry(Level level, String department, String municipality, String neighborhood) {
+            this.level = level;
+            this.department = department;
+            this.municipality = municipality;
+            this.neighborhood = neighborhood;
+            this.label = switch (level) {
+                case DEPARTMENT -> department;
+                case MUNICIPALITY -> municipality;
+                case NEIGHBORHOOD -> neighborhood;
+            };
+        }
+
+        private LocationSuggestionDTO toDTO() {
+            return new LocationSuggestionDTO(level.name(), label, department, municipality, neighborhood, weight);
+        }
+    }
+}
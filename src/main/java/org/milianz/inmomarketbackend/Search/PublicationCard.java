@@ -0,0 +1,121 @@
+package org.milianz.inmomarketbackend.Search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.milianz.inmomarketbackend.Domain.Entities.AvailableTime;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.AvailableTimeDefaultDTO;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationDefaultDTO;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationSummaryDTO;
+import org.milianz.inmomarketbackend.Domain.Entities.PropertyImage;
+import org.milianz.inmomarketbackend.Domain.Entities.Publication;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Tarjeta aplanada de una publicación: todo lo que muestra un listado, sin referencias a entidades.
+// Es inmutable, así que se puede compartir entre hilos y cada respuesta recibe su propia copia como DTO.
+@Getter
+@AllArgsConstructor
+public class PublicationCard {
+
+    // Cada tarjeta armada recibe una versión nueva; sirve para saber si una copia derivada sigue vigente
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private final UUID id;
+    private final long version;
+    private final UUID ownerId;
+    private final LocalDateTime createdAt;
+    private final String propertyAddress;
+    private final String typeName;
+    private final String neighborhood;
+    private final String municipality;
+    private final String department;
+    private final String propertyTitle;
+    private final BigDecimal longitude;
+    private final BigDecimal latitude;
+    private final BigDecimal propertySize;
+    private final Integer propertyBedrooms;
+    private final Integer propertyFloors;
+    private final Integer propertyParking;
+    private final Boolean propertyFurnished;
+    private final String propertyDescription;
+    private final BigDecimal propertyPrice;
+    private final List<String> propertyImageUrls;
+    private final List<String> propertyCardImageUrls;
+    private final String coverThumbnailUrl;
+    private final List<AvailableTimeDefaultDTO> availableTimes;
+    private final String userName;
+    private final long favoriteCount;
+
+    // Debe llamarse con la sesión abierta: recorre tipo, ubicación, dueño, imágenes y horarios
+    public static PublicationCard of(Publication publication, long favoriteCount) {
+        List<PropertyImage> images = publication.getPropertyImages() != null ? publication.getPropertyImages() : List.of();
+        List<AvailableTime> times = publication.getAvailableTimes() != null ? publication.getAvailableTimes() : List.of();
+        return new PublicationCard(
+                publication.getId(),
+                VERSIONS.incrementAndGet(),
+                publication.getUser().getId(),
+                publication.getCreatedAt(),
+                publication.getPropertyAddress(),
+                publication.getPropertyType().getTypeName(),
+                publication.getLocation().getNeighborhood(),
+                publication.getLocation().getMunicipality(),
+                publication.getLocation().getDepartment(),
+                publication.getPropertyTitle(),
+                publication.getLongitude(),
+                publication.getLatitude(),
+                publication.getPropertySize(),
+                publication.getPropertyBedrooms(),
+                publication.getPropertyFloors(),
+                publication.getPropertyParking(),
+                publication.getPropertyFurnished(),
+                publication.getPropertyDescription(),
+                publication.getPropertyPrice(),
+                images.stream().map(PropertyImage::getImageUrl).toList(),
+                images.stream().map(PropertyImage::cardOrOriginalUrl).toList(),
+                images.isEmpty() ? null : images.get(0).thumbnailOrOriginalUrl(),
+                times.stream()
+                        .map(time -> new AvailableTimeDefaultDTO(time.getDayOfWeek(), time.getStartTime(), time.getEndTime()))
+                        .toList(),
+                publication.getUser().getName(),
+                favoriteCount);
+    }
+
+    // Cambia lo que se muestra sin tocar la publicación, así que la tarjeta recibe una versión nueva
+    public PublicationCard withUserName(String name) {
+        return new PublicationCard(id, VERSIONS.incrementAndGet(), ownerId, createdAt,
+                propertyAddress, typeName, neighborhood, municipality, department, propertyTitle, longitude, latitude,
+                propertySize, propertyBedrooms, propertyFloors, propertyParking, propertyFurnished,
+                propertyDescription, propertyPrice, propertyImageUrls, propertyCardImageUrls, coverThumbnailUrl,
+                availableTimes, name, favoriteCount);
+    }
+
+    public PublicationCard withFavoriteCount(long count) {
+        return new PublicationCard(id, VERSIONS.incrementAndGet(), ownerId, createdAt,
+                propertyAddress, typeName, neighborhood, municipality, department, propertyTitle, longitude, latitude,
+                propertySize, propertyBedrooms, propertyFloors, propertyParking, propertyFurnished,
+                propertyDescription, propertyPrice, propertyImageUrls, propertyCardImageUrls, coverThumbnailUrl,
+                availableTimes, userName, count);
+    }
+
+    public PublicationSummaryDTO toSummaryDTO() {
+        return new PublicationSummaryDTO(id, propertyTitle, propertyPrice, propertySize, typeName, department,
+                municipality, neighborhood, createdAt,
+                propertyCardImageUrls.isEmpty() ? null : propertyCardImageUrls.get(0), coverThumbnailUrl,
+                favoriteCount, null);
+    }
+
+    public PublicationDefaultDTO toDTO() {
+        return new PublicationDefaultDTO(id, propertyAddress, typeName, neighborhood, municipality, department,
+                propertyTitle, longitude, latitude, propertySize, propertyBedrooms, propertyFloors, propertyParking,
+                propertyFurnished, propertyDescription, propertyPrice, propertyImageUrls, propertyCardImageUrls,
+                availableTimes.stream()
+                        .map(time -> new AvailableTimeDefaultDTO(time.getDayOfWeek(), time.getStartTime(), time.getEndTime()))
+                        .toList(),
+                userName,
+                favoriteCount,
+                null);
+    }
+}
@@ -0,0 +1,155 @@
+package org.milianz.inmomarketbackend.Search;
+
+import lombok.RequiredArgsConstructor;
+import org.milianz.inmomarketbackend.Domain.Entities.Publication;
+import org.milianz.inmomarketbackend.Domain.Repositories.iPublicationRepository;
+import org.milianz.inmomarketbackend.Utils.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Modelo de lectura con la tarjeta ya armada de cada publicación. Los listados leen una tarjeta por id
+// en lugar de recorrer tipo, ubicación, dueño, imágenes y horarios en cada petición.
+// Las tarjetas se rearman después de confirmar, leyendo la publicación en una transacción propia, para que
+// dos confirmaciones concurrentes no dejen guardada la tarjeta armada con el estado más viejo.
+@Component
+@RequiredArgsConstructor
+public class PublicationCardStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicationCardStore.class);
+
+    private static final int MAX_REBUILDS = 3;
+
+    private final CatalogVersion catalogVersion;
+    private final FavoriteCounters favoriteCounters;
+    private final iPublicationRepository publicationRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Map<UUID, PublicationCard> cards = new ConcurrentHashMap<>();
+    // Turno del último cambio aplicado a cada tarjeta. Se toma al confirmar, así que un turno mayor
+    // corresponde a una lectura que ya ve todo lo confirmado antes
+    private final Map<UUID, Long> applied = new ConcurrentHashMap<>();
+    private final AtomicLong turns = new AtomicLong();
+    private volatile boolean ready = false;
+
+    // Lo llama PublicationIndexLoader dentro de su transacción: armar una tarjeta recorre las relaciones
+    public void load(List<Publication> publications) {
+        for (Publication publication : publications) {
+            // Un cambio que llegó durante la carga ya dejó una tarjeta más nueva que esta
+            cards.putIfAbsent(publication.getId(), PublicationCard.of(publication,
+                    favoriteCounters.count(publication.getId())));
+        }
+
+        ready = true;
+        logger.info("Publication card store loaded with {} cards", cards.size());
+    }
+
+    @EventListener
+    public void onPublicationChanged(PublicationChangedEvent event) {
+        refresh(event.getPublication().getId());
+    }
+
+    // Para cambios en imágenes u horarios que no pasan por un cambio de estado
+    public void refresh(UUID publicationId) {
+        afterCommit(() -> rebuild(publicationId));
+    }
+
+    // Si otro cambio se aplicó mientras se leía, esta lectura pudo quedar vieja y se repite
+    private void rebuild(UUID publicationId) {
+        for (int attempt = 0; attempt < MAX_REBUILDS; attempt++) {
+            long turn = turns.incrementAndGet();
+            PublicationCard fresh;
+            try {
+                fresh = read(publicationId);
+            } catch (RuntimeException e) {
+                logger.warn("Could not rebuild card {}: {}", publicationId, e.toString());
+                return;
+            }
+            if (fresh == null) {
+                return;
+            }
+            boolean[] stored = {false};
+            cards.compute(publicationId, (id, current) -> {
+                if (applied.getOrDefault(id, 0L) > turn) {
+                    return current;
+                }
+                applied.put(id, turn);
+                stored[0] = true;
+                // El conteo se toma al guardar: los favoritos se aplican sobre la tarjeta que haya en ese momento
+                return fresh.withFavoriteCount(favoriteCounters.count(id));
+            });
+            if (stored[0]) {
+                return;
+            }
+        }
+        logger.warn("Card {} kept changing while being rebuilt; keeping the latest stored one", publicationId);
+    }
+
+    // Ya confirmada la transacción del cambio, la lectura necesita una nueva
+    private PublicationCard read(UUID publicationId) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(true);
+        return template.execute(status -> publicationRepository.findWithDetailsById(publicationId)
+                .map(publication -> PublicationCard.of(publication, 0))
+                .orElse(null));
+    }
+
+    // FavoriteCounters aplica el cambio antes, así que al confirmar el conteo ya está al día
+    @EventListener
+    public void onFavoriteChanged(FavoriteChangedEvent event) {
+        UUID publicationId = event.getPublicationId();
+        afterCommit(() -> cards.computeIfPresent(publicationId,
+                (id, card) -> card.withFavoriteCount(favoriteCounters.count(id))));
+    }
+
+    // El nombre del dueño está copiado en cada una de sus tarjetas
+    public void renameOwner(UUID userId, String name) {
+        afterCommit(() -> cards.replaceAll((id, card) -> {
+            if (!card.getOwnerId().equals(userId)) {
+                return card;
+            }
+            // Una reconstrucción que leyó antes del cambio de nombre ya no puede pisarlo
+            applied.put(id, turns.incrementAndGet());
+            return card.withUserName(name);
+        }));
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public Optional<PublicationCard> find(UUID publicationId) {
+        return Optional.ofNullable(cards.get(publicationId));
+    }
+
+    // Solo las tarjetas presentes; el llamador decide qué hacer con las que falten
+    public Map<UUID, PublicationCard> findAll(List<UUID> publicationIds) {
+        Map<UUID, PublicationCard> found = new HashMap<>();
+        for (UUID publicationId : publicationIds) {
+            PublicationCard card = cards.get(publicationId);
+            if (card != null) {
+                found.put(publicationId, card);
+            }
+        }
+        return found;
+    }
+
+    private void afterCommit(Runnable action) {
+        TransactionHooks.afterCommit(() -> {
+            action.run();
+            catalogVersion.publicationsChanged();
+        });
+    }
+}
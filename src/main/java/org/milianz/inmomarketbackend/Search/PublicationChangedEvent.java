@@ -0,0 +1,20 @@
+package org.milianz.inmomarketbackend.Search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.milianz.inmomarketbackend.Domain.Entities.Publication;
+
+// Se publica cada vez que una publicación se crea o cambia de estado
+@Getter
+@AllArgsConstructor
+public class PublicationChangedEvent {
+    private final Publication publication;
+    // Estado antes del cambio; null si la publicación es nueva
+    private final Publication.PublicationStatus previousStatus;
+
+    // Publicación que pasó a estar visible, ya sea nueva o reactivada
+    public boolean becameActive() {
+        return publication.getStatus() == Publication.PublicationStatus.ACTIVE
+                && previousStatus != Publication.PublicationStatus.ACTIVE;
+    }
+}
@@ -0,0 +1,256 @@
+package org.milianz.inmomarketbackend.Search;
+
+import lombok.RequiredArgsConstructor;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationClusterDTO;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+// Grupos de publicaciones activas precalculados por nivel de zoom.
+// Cada nivel divide el mapa en celdas de 360 / 2^zoom grados y guarda conteo, centroide y rango de precios.
+@Component
+@RequiredArgsConstructor
+public class PublicationClusterIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicationClusterIndex.class);
+
+    public static final int MIN_ZOOM = 4;
+    public static final int MAX_ZOOM = 16;
+
+    private final PublicationOrdinals ordinals;
+
+    private final List<Map<Long, Cell>> levels = emptyLevels();
+    private final RoaringBitmap clustered = new RoaringBitmap();
+    private double[] latitudes = new double[1024];
+    private double[] longitudes = new double[1024];
+    private double[] prices = new double[1024];
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void load(List<IndexedPublication> publications) {
+        lock.writeLock().lock();
+        try {
+            publications.forEach(this::indexLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        logger.info("Cluster index loaded with {} publications", clustered.getCardinality());
+    }
+
+    public void index(IndexedPublication publication) {
+        lock.writeLock().lock();
+        try {
+            indexLocked(publication);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Grupos precalculados del nivel de zoom dentro del área visible
+    public List<PublicationClusterDTO> clusters(int zoom, double minLat, double maxLat, double minLng, double maxLng) {
+        lock.readLock().lock();
+        try {
+            List<PublicationClusterDTO> result = new ArrayList<>();
+            forEachCell(zoom, minLat, maxLat, minLng, maxLng, (key, cell) -> {
+                if (cell.count > 0) {
+                    result.add(toDTO(zoom, key, cell));
+                }
+            });
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Con filtros de atributos los agregados no sirven: se recalculan sobre la intersección de cada celda
+    public List<PublicationClusterDTO> clusters(int zoom, double minLat, double maxLat, double minLng, double maxLng,
+                                                RoaringBitmap candidates) {
+        lock.readLock().lock();
+        try {
+            List<PublicationClusterDTO> result = new ArrayList<>();
+            forEachCell(zoom, minLat, maxLat, minLng, maxLng, (key, cell) -> {
+                RoaringBitmap members = RoaringBitmap.and(cell.members, candidates);
+                if (members.isEmpty()) {
+                    return;
+                }
+                Cell filtered = new Cell();
+                members.forEach((int ordinal) -> filtered.add(ordinal, latitudes[ordinal], longitudes[ordinal], prices[ordinal]));
+                result.add(toDTO(zoom, key, filtered));
+            });
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void forEachCell(int zoom, double minLat, double maxLat, double minLng, double maxLng,
+                             BiConsumer<Long, Cell> consumer) {
+        Map<Long, Cell> level = levels.get(zoom - MIN_ZOOM);
+        double size = cellDegrees(zoom);
+        int minRow = index(minLat + 90.0, size);
+        int maxRow = index(maxLat + 90.0, size);
+        int minCol = index(minLng + 180.0, size);
+        int maxCol = index(maxLng + 180.0, size);
+
+        long span = (long) (maxRow - minRow + 1) * (maxCol - minCol + 1);
+        if (span > level.size()) {
+            level.forEach((key, cell) -> {
+                int row = (int) (key >> 32);
+                int col = (int) (long) key;
+                if (row >= minRow && row <= maxRow && col >= minCol && col <= maxCol) {
+                    consumer.accept(key, cell);
+                }
+            });
+        } else {
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int col = minCol; col <= maxCol; col++) {
+                    long key = key(row, col);
+                    Cell cell = level.get(key);
+                    if (cell != null) {
+                        consumer.accept(key, cell);
+                    }
+                }
+            }
+        }
+    }
+
+    private PublicationClusterDTO toDTO(int zoom, long key, Cell cell) {
+        PublicationClusterDTO dto = new PublicationClusterDTO();
+        dto.setCell(zoom + "/" + (int) (key >> 32) + "/" + (int) key);
+        dto.setCount(cell.count);
+        dto.setLatitude(cell.sumLat / cell.count);
+        dto.setLongitude(cell.sumLng / cell.count);
+        dto.setMinPrice(cell.minPrice);
+        dto.setMaxPrice(cell.maxPrice);
+        if (cell.count == 1) {
+            dto.setPublicationId(ordinals.idOf(cell.members.first()));
+        }
+        return dto;
+    }
+
+    private void indexLocked(IndexedPublication publication) {
+        int ordinal = ordinals.ordinalFor(publication.getId());
+        ensureCapacity(ordinal);
+
+        if (clustered.contains(ordinal)) {
+            removeLocked(ordinal);
+        }
+
+        if (!publication.isActive() || publication.getLatitude() == null || publication.getLongitude() == null) {
+            return;
+        }
+
+        double lat = publication.getLatitude().doubleValue();
+        double lng = publication.getLongitude().doubleValue();
+        double price = publication.getPrice() != null ? publication.getPrice().doubleValue() : 0;
+        latitudes[ordinal] = lat;
+        longitudes[ordinal] = lng;
+        prices[ordinal] = price;
+
+        for (int zoom = MIN_ZOOM; zoom <= MAX_ZOOM; zoom++) {
+            levels.get(zoom - MIN_ZOOM)
+                    .computeIfAbsent(cellKey(zoom, lat, lng), key -> new Cell())
+                    .add(ordinal, lat, lng, price);
+        }
+        clustered.add(ordinal);
+    }
+
+    private void removeLocked(int ordinal) {
+        double lat = latitudes[ordinal];
+        double lng = longitudes[ordinal];
+        for (int zoom = MIN_ZOOM; zoom <= MAX_ZOOM; zoom++) {
+            Map<Long, Cell> level = levels.get(zoom - MIN_ZOOM);
+            long key = cellKey(zoom, lat, lng);
+            Cell cell = level.get(key);
+            if (cell == null) {
+                continue;
+            }
+            cell.remove(ordinal, lat, lng, prices);
+            if (cell.count == 0) {
+                level.remove(key);
+            }
+        }
+        clustered.remove(ordinal);
+    }
+
+    private void ensureCapacity(int ordinal) {
+        if (ordinal >= latitudes.length) {
+            int capacity = Math.max(ordinal + 1, latitudes.length * 2);
+            latitudes = Arrays.copyOf(latitudes, capacity);
+            longitudes = Arrays.copyOf(longitudes, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+        }
+    }
+
+    private static List<Map<Long, Cell>> emptyLevels() {
+        List<Map<Long, Cell>> levels = new ArrayList<>();
+        for (int zoom = MIN_ZOOM; zoom <= MAX_ZOOM; zoom++) {
+            levels.add(new HashMap<>());
+        }
+        return levels;
+    }
+
+    private static double cellDegrees(int zoom) {
+        return 360.0 / (1L << zoom);
+    }
+
+    private static int index(double offset, double size) {
+        return (int) Math.floor(offset / size);
+    }
+
+    private static long cellKey(int zoom, double lat, double lng) {
+        double size = cellDegrees(zoom);
+        return key(index(lat + 90.0, size), index(lng + 180.0, size));
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    private static class Cell {
+        private final RoaringBitmap members = new RoaringBitmap();
+        private long count;
+        private double sumLat;
+        private double sumLng;
+        private double minPrice = Double.POSITIVE_INFINITY;
+        private double maxPrice = Double.NEGATIVE_INFINITY;
+
+        private void add(int ordinal, double lat, double lng, double price) {
+            members.add(ordinal);
+            count++;
+            sumLat += lat;
+            sumLng += lng;
+            minPrice = Math.min(minPrice, price);
+            maxPrice = Math.max(maxPrice, price);
+        }
+
+        // El mínimo y el máximo no se pueden restar, así que se recalculan solo si salió un extremo
+        private void remove(int ordinal, double lat, double lng, double[] prices) {
+            if (!members.contains(ordinal)) {
+                return;
+            }
+            members.remove(ordinal);
+            count--;
+            sumLat -= lat;
+            sumLng -= lng;
+
+            double price = prices[ordinal];
+            if (price <= minPrice || price >= maxPrice) {
+                minPrice = Double.POSITIVE_INFINITY;
+                maxPrice = Double.NEGATIVE_INFINITY;
+                members.forEach((int member) -> {
+                    minPrice = Math.min(minPrice, prices[member]);
+                    maxPrice = Math.max(maxPrice, prices[member]);
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package org.milianz.inmomarketbackend.Search;
+
+import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Columnas numéricas ordenadas (precio, tamaño y precio por m²) con referencia al ordinal de cada publicación.
+// Los rangos y los ordenamientos se resuelven con búsqueda binaria sobre arreglos primitivos.
+// Los empates se rompen por id igual que PublicationSpecifications.sortOf, comparando los bytes del UUID sin signo
+// como lo hace PostgreSQL, para que un cursor dé la misma página por el índice y por la base.
+@Component
+@RequiredArgsConstructor
+public class PublicationColumnIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicationColumnIndex.class);
+
+    public enum Column {
+        PRICE, SIZE, PRICE_PER_SQUARE_METER
+    }
+
+    private final PublicationOrdinals ordinals;
+
+    private final Map<Column, SortedColumn> columns = emptyColumns();
+    // Mitades del UUID de cada ordinal, el desempate de todas las columnas
+    private long[] idHighs = new long[1024];
+    private long[] idLows = new long[1024];
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready = false;
+
+    public void load(List<IndexedPublication> publications) {
+        lock.writeLock().lock();
+        try {
+            Map<Column, List<double[]>> entries = new EnumMap<>(Column.class);
+            for (Column column : Column.values()) {
+                entries.put(column, new ArrayList<>(publications.size()));
+            }
+            for (IndexedPublication publication : publications) {
+                int ordinal = ordinals.ordinalFor(publication.getId());
+                putId(ordinal, publication.getId());
+                valuesOf(publication).forEach((column, value) -> entries.get(column).add(new double[]{value, ordinal}));
+            }
+            entries.forEach((column, values) -> columns.get(column).bulkLoad(values));
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        ready = true;
+        logger.info("Column index loaded with {} prices", columns.get(Column.PRICE).size);
+    }
+
+    public void index(IndexedPublication publication) {
+        int ordinal = ordinals.ordinalFor(publication.getId());
+        Map<Column, Double> values = valuesOf(publication);
+
+        lock.writeLock().lock();
+        try {
+            putId(ordinal, publication.getId());
+            for (Column column : Column.values()) {
+                SortedColumn sorted = columns.get(column);
+                sorted.remove(ordinal);
+                Double value = values.get(column);
+                if (value != null) {
+                    sorted.insert(ordinal, value);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Ordinales con valor dentro de [min, max]; los extremos nulos no acotan
+    public RoaringBitmap range(Column column, BigDecimal min, BigDecimal max) {
+        double lower = min != null ? min.doubleValue() : Double.NEGATIVE_INFINITY;
+        double upper = max != null ? max.doubleValue() : Double.POSITIVE_INFINITY;
+
+        lock.readLock().lock();
+        try {
+            SortedColumn sorted = columns.get(column);
+            int from = sorted.countBefore(lower, 0L, 0L);
+            int to = sorted.countBefore(upper, -1L, -1L);
+            RoaringBitmap result = new RoaringBitmap();
+            if (to > from) {
+                result.addN(sorted.ordinals, from, to - from);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Primeros candidatos según el valor de la columna, con el id como desempate.
+    // Con un valor e id de referencia se continúa justo después de ellos.
+    // Si hay pocos candidatos se evalúa cada uno con un montículo del tamaño de la página; si hay muchos,
+    // conviene recorrer la columna desde el cursor, porque la página se llena antes de avanzar demasiado.
+    // El corte es candidatos² ≤ página × tamaño: el recorrido lee unas página × tamaño / candidatos entradas.
+    public List<Integer> top(Column column, RoaringBitmap candidates, int limit, boolean ascending,
+                             Double afterValue, UUID afterId) {
+        lock.readLock().lock();
+        try {
+            SortedColumn sorted = columns.get(column);
+            long count = candidates.getLongCardinality();
+            if (count * count <= (long) limit * sorted.size) {
+                return sorted.topOf(candidates, limit, ascending, afterValue, afterId);
+            }
+            return sorted.scan(candidates, limit, ascending, afterValue, afterId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putId(int ordinal, UUID id) {
+        if (ordinal >= idHighs.length) {
+            int capacity = Math.max(ordinal + 1, idHighs.length * 2);
+            idHighs = Arrays.copyOf(idHighs, capacity);
+            idLows = Arrays.copyOf(idLows, capacity);
+        }
+        idHighs[ordinal] = id.getMostSignificantBits();
+        idLows[ordinal] = id.getLeastSignificantBits();
+    }
+
+    // Orden de (valor, id) con el id comparado como 16 bytes sin signo
+    private int compare(double valueA, int ordinalA, double valueB, long highB, long lowB) {
+        int byValue = Double.compare(valueA, valueB);
+        if (byValue != 0) {
+            return byValue;
+        }
+        int byHigh = Long.compareUnsigned(idHighs[ordinalA], highB);
+        return byHigh != 0 ? byHigh : Long.compareUnsigned(idLows[ordinalA], lowB);
+    }
+
+    private int compare(double valueA, int ordinalA, double valueB, int ordinalB) {
+        return compare(valueA, ordinalA, valueB, idHighs[ordinalB], idLows[ordinalB]);
+    }
+
+    private static Map<Column, Double> valuesOf(IndexedPublication publication) {
+        Map<Column, Double> values = new EnumMap<>(Column.class);
+        BigDecimal price = publication.getPrice();
+        BigDecimal size = publication.getSize();
+        if (price != null) {
+            values.put(Column.PRICE, price.doubleValue());
+        }
+        if (size != null) {
+            values.put(Column.SIZE, size.doubleValue());
+        }
+        if (price != null && size != null && size.signum() > 0) {
+            values.put(Column.PRICE_PER_SQUARE_METER, price.doubleValue() / size.doubleValue());
+        }
+        return values;
+    }
+
+    private Map<Column, SortedColumn> emptyColumns() {
+        Map<Column, SortedColumn> columns = new EnumMap<>(Column.class);
+        for (Column column : Column.values()) {
+            columns.put(column, new SortedColumn());
+        }
+        return columns;
+    }
+
+    // Pares (valor, ordinal) ordenados en dos arreglos paralelos, más el valor actual de cada ordinal para poder quitarlo
+    private class SortedColumn {
+        private double[] values = new double[1024];
+        private int[] ordinals = new int[1024];
+        private int size = 0;
+        private double[] byOrdinal = emptyByOrdinal(1024);
+
+        private void bulkLoad(List<double[]> entries) {
+            entries.sort((a, b) -> compare(a[0], (int) a[1], b[0], (int) b[1]));
+            int capacity = Math.max(1024, entries.size() * 2);
+            values = new double[capacity];
+            ordinals = new int[capacity];
+            size = 0;
+            for (double[] entry : entries) {
+                int ordinal = (int) entry[1];
+                values[size] = entry[0];
+                ordinals[size] = ordinal;
+                size++;
+                ensureOrdinalCapacity(ordinal);
+                byOrdinal[ordinal] = entry[0];
+            }
+        }
+
+        private void insert(int ordinal, double value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            int position = countBefore(value, idHighs[ordinal], idLows[ordinal]);
+            System.arraycopy(values, position, values, position + 1, size - position);
+            System.arraycopy(ordinals, position, ordinals, position + 1, size - position);
+            values[position] = value;
+            ordinals[position] = ordinal;
+            size++;
+
+            ensureOrdinalCapacity(ordinal);
+            byOrdinal[ordinal] = value;
+        }
+
+        private void remove(int ordinal) {
+            if (ordinal >= byOrdinal.length || Double.isNaN(byOrdinal[ordinal])) {
+                return;
+            }
+            int position = countBefore(byOrdinal[ordinal], idHighs[ordinal], idLows[ordinal]);
+            System.arraycopy(values, position + 1, values, position, size - position - 1);
+            System.arraycopy(ordinals, position + 1, ordinals, position, size - position - 1);
+            size--;
+            byOrdinal[ordinal] = Double.NaN;
+        }
+
+        private List<Integer> scan(RoaringBitmap candidates, int limit, boolean ascending, Double afterValue, UUID afterId) {
+            List<Integer> result = new ArrayList<>(Math.min(limit, size));
+            if (ascending) {
+                int start = afterValue != null ? countNotAfter(afterValue, afterId) : 0;
+                for (int i = start; i < size && result.size() < limit; i++) {
+                    if (candidates.contains(ordinals[i])) {
+                        result.add(ordinals[i]);
+                    }
+                }
+            } else {
+                int start = afterValue != null
+                        ? countBefore(afterValue, afterId.getMostSignificantBits(), afterId.getLeastSignificantBits()) - 1
+                        : size - 1;
+                for (int i = start; i >= 0 && result.size() < limit; i--) {
+                    if (candidates.contains(ordinals[i])) {
+                        result.add(ordinals[i]);
+                    }
+                }
+            }
+            return result;
+        }
+
+        // Arriba del montículo queda el peor de los guardados, que sale cuando entra uno mejor
+        private List<Integer> topOf(RoaringBitmap candidates, int limit, boolean ascending, Double afterValue, UUID afterId) {
+            Comparator<Integer> order = (a, b) -> compare(byOrdinal[a], a, byOrdinal[b], b);
+            if (ascending) {
+                order = order.reversed();
+            }
+            PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, order);
+            candidates.forEach((int ordinal) -> {
+                if (ordinal >= byOrdinal.length || Double.isNaN(byOrdinal[ordinal])) {
+                    return;
+                }
+                if (afterValue != null) {
+                    int fromCursor = compare(byOrdinal[ordinal], ordinal, afterValue,
+                            afterId.getMostSignificantBits(), afterId.getLeastSignificantBits());
+                    if (ascending ? fromCursor <= 0 : fromCursor >= 0) {
+                        return;
+                    }
+                }
+                best.add(ordinal);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            });
+            List<Integer> result = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                result.add(best.poll());
+            }
+            Collections.reverse(result);
+            return result;
+        }
+
+        // Cantidad de pares menores que (value, id): es a la vez la posición de inserción
+        private int countBefore(double value, long idHigh, long idLow) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compare(values[middle], ordinals[middle], value, idHigh, idLow) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        // Cantidad de pares menores o iguales a (value, id)
+        private int countNotAfter(double value, UUID id) {
+            long idHigh = id.getMostSignificantBits();
+            long idLow = id.getLeastSignificantBits();
+            int position = countBefore(value, idHigh, idLow);
+            boolean equal = position < size && compare(values[position], ordinals[position], value, idHigh, idLow) == 0;
+            return equal ? position + 1 : position;
+        }
+
+        private void ensureOrdinalCapacity(int ordinal) {
+            if (ordinal >= byOrdinal.length) {
+                int previous = byOrdinal.length;
+                byOrdinal = Arrays.copyOf(byOrdinal, Math.max(ordinal + 1, previous * 2));
+                Arrays.fill(byOrdinal, previous, byOrdinal.length, Double.NaN);
+            }
+        }
+
+    }
+
+    private static double[] emptyByOrdinal(int capacity) {
+        double[] column = new double[capacity];
+        Arrays.fill(column, Double.NaN);
+        return column;
+    }
+}
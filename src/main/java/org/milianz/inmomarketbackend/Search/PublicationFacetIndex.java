@@ -0,0 +1,234 @@
+package org.milianz.inmomarketbackend.Search;
+
+import lombok.RequiredArgsConstructor;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationSearchDTO;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice en memoria con un bitmap comprimido por cada valor de faceta.
+// Un filtro con varias facetas se resuelve con intersecciones de bitmaps sin ir a la base de datos.
+@Component
+@RequiredArgsConstructor
+public class PublicationFacetIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicationFacetIndex.class);
+
+    public static final String DEPARTMENT = "department";
+    public static final String MUNICIPALITY = "municipality";
+    public static final String NEIGHBORHOOD = "neighborhood";
+    public static final String TYPE_NAME = "typeName";
+    public static final String BEDROOMS = "bedrooms";
+    public static final String FLOORS = "floors";
+    public static final String PARKING = "parking";
+    public static final String FURNISHED = "furnished";
+    public static final String STATUS = "status";
+    public static final String PRICE_BUCKET = "priceBucket";
+
+    // Límites superiores (exclusivos) de los rangos de precio que se muestran en las facetas
+    private static final long[] PRICE_BUCKET_BOUNDS = {50_000, 100_000, 200_000, 500_000};
+
+    private final PublicationOrdinals ordinals;
+    private final PublicationColumnIndex columns;
+
+    private final Map<String, Map<Object, RoaringBitmap>> facets = new HashMap<>();
+    private final Map<Integer, Map<String, Object>> indexedValues = new HashMap<>();
+    private final RoaringBitmap indexed = new RoaringBitmap();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready = false;
+
+    public void load(List<IndexedPublication> publications) {
+        lock.writeLock().lock();
+        try {
+            publications.forEach(this::indexLocked);
+            facets.values().forEach(values -> values.values().forEach(RoaringBitmap::runOptimize));
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        ready = true;
+        logger.info("Facet index loaded with {} publications", publications.size());
+    }
+
+    public void index(IndexedPublication publication) {
+        lock.writeLock().lock();
+        try {
+            indexLocked(publication);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Los filtros de rango dependen del índice de columnas, así que ambos deben estar cargados
+    public boolean isReady() {
+        return ready && columns.isReady();
+    }
+
+    // Devuelve los ordinales que cumplen todos los filtros presentes
+    public RoaringBitmap match(PublicationSearchDTO filters) {
+        lock.readLock().lock();
+        try {
+            return matchLocked(filters);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Cuenta cuántos ordinales de base tiene cada valor de la faceta
+    public Map<String, Long> count(String facet, RoaringBitmap base) {
+        lock.readLock().lock();
+        try {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            facets.getOrDefault(facet, Map.of()).entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey(PublicationFacetIndex::compareValues))
+                    .forEach(entry -> {
+                        long count = RoaringBitmap.andCardinality(base, entry.getValue());
+                        if (count > 0) {
+                            counts.put(label(facet, entry.getKey()), count);
+                        }
+                    });
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap matchLocked(PublicationSearchDTO filters) {
+        RoaringBitmap result = indexed.clone();
+        and(result, STATUS, filters.getStatus());
+        and(result, DEPARTMENT, filters.getDepartment());
+        and(result, MUNICIPALITY, filters.getMunicipality());
+        and(result, NEIGHBORHOOD, filters.getNeighborhood());
+        and(result, TYPE_NAME, filters.getTypeName());
+        and(result, BEDROOMS, filters.getBedrooms());
+        and(result, FLOORS, filters.getFloors());
+        and(result, PARKING, filters.getParking());
+        and(result, FURNISHED, filters.getFurnished());
+        between(result, PublicationColumnIndex.Column.PRICE, filters.getMinPrice(), filters.getMaxPrice());
+        between(result, PublicationColumnIndex.Column.SIZE, filters.getMinSize(), filters.getMaxSize());
+        between(result, PublicationColumnIndex.Column.PRICE_PER_SQUARE_METER,
+                filters.getMinPricePerSquareMeter(), filters.getMaxPricePerSquareMeter());
+        return result;
+    }
+
+    // Como los ordinales siguen el orden de creación, recorrer el bitmap al revés da las más recientes primero
+    // Con un ordinal de referencia se descarta todo lo que ya se entregó en páginas anteriores
+    public List<UUID> firstIds(RoaringBitmap matches, int limit, boolean newestFirst, Integer afterOrdinal) {
+        if (afterOrdinal != null) {
+            if (newestFirst) {
+                matches.remove((long) afterOrdinal, 0x100000000L);
+            } else {
+                matches.remove(0L, (long) afterOrdinal + 1);
+            }
+        }
+        IntIterator iterator = newestFirst ? matches.getReverseIntIterator() : matches.getIntIterator();
+        List<UUID> ids = new ArrayList<>(Math.min(limit, matches.getCardinality()));
+        while (iterator.hasNext() && ids.size() < limit) {
+            ids.add(ordinals.idOf(iterator.next()));
+        }
+        return ids;
+    }
+
+    public List<UUID> idsOf(List<Integer> ordinalList) {
+        return ordinalList.stream().map(ordinals::idOf).toList();
+    }
+
+    private void and(RoaringBitmap result, String facet, Object value) {
+        if (value == null) {
+            return;
+        }
+        RoaringBitmap bitmap = facets.getOrDefault(facet, Map.of()).get(value);
+        if (bitmap == null) {
+            result.clear();
+        } else {
+            result.and(bitmap);
+        }
+    }
+
+    // Los rangos salen de las columnas ordenadas del índice de columnas, sin recorrer cada publicación
+    private void between(RoaringBitmap result, PublicationColumnIndex.Column column, BigDecimal min, BigDecimal max) {
+        if (min == null && max == null) {
+            return;
+        }
+        result.and(columns.range(column, min, max));
+    }
+
+    private void indexLocked(IndexedPublication publication) {
+        int ordinal = ordinals.ordinalFor(publication.getId());
+
+        Map<String, Object> previous = indexedValues.remove(ordinal);
+        if (previous != null) {
+            previous.forEach((facet, value) -> bitmap(facet, value).remove(ordinal));
+        }
+
+        Map<String, Object> values = valuesOf(publication);
+        values.forEach((facet, value) -> bitmap(facet, value).add(ordinal));
+        indexedValues.put(ordinal, values);
+        indexed.add(ordinal);
+    }
+
+    private static int priceBucket(BigDecimal price) {
+        long value = price.longValue();
+        for (int i = 0; i < PRICE_BUCKET_BOUNDS.length; i++) {
+            if (value < PRICE_BUCKET_BOUNDS[i]) {
+                return i;
+            }
+        }
+        return PRICE_BUCKET_BOUNDS.length;
+    }
+
+    private static String label(String facet, Object value) {
+        if (!PRICE_BUCKET.equals(facet)) {
+            return String.valueOf(value);
+        }
+        int bucket = (Integer) value;
+        if (bucket == PRICE_BUCKET_BOUNDS.length) {
+            return PRICE_BUCKET_BOUNDS[bucket - 1] + "+";
+        }
+        long lower = bucket == 0 ? 0 : PRICE_BUCKET_BOUNDS[bucket - 1];
+        return lower + "-" + PRICE_BUCKET_BOUNDS[bucket];
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareValues(Object a, Object b) {
+        return ((Comparable) a).compareTo(b);
+    }
+
+    private RoaringBitmap bitmap(String facet, Object value) {
+        return facets.computeIfAbsent(facet, key -> new HashMap<>())
+                .computeIfAbsent(value, key -> new RoaringBitmap());
+    }
+
+    private Map<String, Object> valuesOf(IndexedPublication publication) {
+        Map<String, Object> values = new HashMap<>();
+        putIfPresent(values, DEPARTMENT, publication.getDepartment());
+        putIfPresent(values, MUNICIPALITY, publication.getMunicipality());
+        putIfPresent(values, NEIGHBORHOOD, publication.getNeighborhood());
+        putIfPresent(values, TYPE_NAME, publication.getTypeName());
+        putIfPresent(values, BEDROOMS, publication.getBedrooms());
+        putIfPresent(values, FLOORS, publication.getFloors());
+        putIfPresent(values, PARKING, publication.getParking());
+        putIfPresent(values, FURNISHED, publication.getFurnished());
+        putIfPresent(values, STATUS, publication.getStatus());
+        if (publication.getPrice() != null) {
+            values.put(PRICE_BUCKET, priceBucket(publication.getPrice()));
+        }
+        return values;
+    }
+
+    private void putIfPresent(Map<String, Object> values, String facet, Object value) {
+        if (value != null) {
+            values.put(facet, value);
+        }
+    }
+}
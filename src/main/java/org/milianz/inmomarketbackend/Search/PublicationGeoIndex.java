@@ -0,0 +1,208 @@
+package org.milianz.inmomarketbackend.Search;
+
+import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice espacial en memoria: una grilla de celdas fijas con un bitmap de ordinales por celda.
+// Las coordenadas se guardan como double por ordinal para el filtro exacto y el cálculo de distancias.
+@Component
+@RequiredArgsConstructor
+public class PublicationGeoIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicationGeoIndex.class);
+
+    // 0.01 grados son aproximadamente 1.1 km
+    private static final double CELL_DEGREES = 0.01;
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE_LAT = 111.32;
+
+    private final PublicationOrdinals ordinals;
+
+    private final Map<Long, RoaringBitmap> cells = new HashMap<>();
+    private double[] latitudes = emptyColumn(1024);
+    private double[] longitudes = emptyColumn(1024);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void load(List<IndexedPublication> publications) {
+        lock.writeLock().lock();
+        try {
+            publications.forEach(this::indexLocked);
+            cells.values().forEach(RoaringBitmap::runOptimize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        logger.info("Geo index loaded with {} cells", cells.size());
+    }
+
+    public void index(IndexedPublication publication) {
+        lock.writeLock().lock();
+        try {
+            indexLocked(publication);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ordinales dentro del rectángulo, restringidos a los candidatos dados
+    public RoaringBitmap withinBox(RoaringBitmap candidates, double minLat, double maxLat, double minLng, double maxLng) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap inCells = cellsCovering(minLat, maxLat, minLng, maxLng);
+            inCells.and(candidates);
+
+            RoaringBitmap result = new RoaringBitmap();
+            inCells.forEach((int ordinal) -> {
+                double lat = latitudes[ordinal];
+                double lng = longitudes[ordinal];
+                if (lat >= minLat && lat <= maxLat && lng >= minLng && lng <= maxLng) {
+                    result.add(ordinal);
+                }
+            });
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Los ordinales más cercanos al punto dentro del radio, ordenados por distancia
+    public List<Integer> nearest(RoaringBitmap candidates, double lat, double lng, double radiusKm, int limit) {
+        double latDelta = radiusKm / KM_PER_DEGREE_LAT;
+        double lngDelta = radiusKm / (KM_PER_DEGREE_LAT * Math.max(Math.cos(Math.toRadians(lat)), 0.01));
+
+        lock.readLock().lock();
+        try {
+            RoaringBitmap inCells = cellsCovering(lat - latDelta, lat + latDelta, lng - lngDelta, lng + lngDelta);
+            inCells.and(candidates);
+
+            // Max-heap acotado a "limit" elementos: el más lejano queda arriba para descartarlo
+            PriorityQueue<double[]> closest = new PriorityQueue<>((a, b) -> Double.compare(b[1], a[1]));
+            inCells.forEach((int ordinal) -> {
+                double distance = distanceKm(lat, lng, latitudes[ordinal], longitudes[ordinal]);
+                if (distance > radiusKm) {
+                    return;
+                }
+                if (closest.size() < limit) {
+                    closest.add(new double[]{ordinal, distance});
+                } else if (distance < closest.peek()[1]) {
+                    closest.poll();
+                    closest.add(new double[]{ordinal, distance});
+                }
+            });
+
+            List<Integer> result = new ArrayList<>(closest.size());
+            while (!closest.isEmpty()) {
+                result.add((int) closest.poll()[0]);
+            }
+            Collections.reverse(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private RoaringBitmap cellsCovering(double minLat, double maxLat, double minLng, double maxLng) {
+        int minRow = row(minLat);
+        int maxRow = row(maxLat);
+        int minCol = col(minLng);
+        int maxCol = col(maxLng);
+
+        List<RoaringBitmap> covered = new ArrayList<>();
+        long span = (long) (maxRow - minRow + 1) * (maxCol - minCol + 1);
+        if (span > cells.size()) {
+            // Para áreas grandes es más barato recorrer las celdas ocupadas que todas las del rectángulo
+            cells.forEach((key, bitmap) -> {
+                int cellRow = (int) (key >> 32);
+                int cellCol = (int) (long) key;
+                if (cellRow >= minRow && cellRow <= maxRow && cellCol >= minCol && cellCol <= maxCol) {
+                    covered.add(bitmap);
+                }
+            });
+        } else {
+            for (int r = minRow; r <= maxRow; r++) {
+                for (int c = minCol; c <= maxCol; c++) {
+                    RoaringBitmap bitmap = cells.get(key(r, c));
+                    if (bitmap != null) {
+                        covered.add(bitmap);
+                    }
+                }
+            }
+        }
+        return RoaringBitmap.or(covered.iterator());
+    }
+
+    private void indexLocked(IndexedPublication publication) {
+        int ordinal = ordinals.ordinalFor(publication.getId());
+        ensureCapacity(ordinal);
+
+        double previousLat = latitudes[ordinal];
+        double previousLng = longitudes[ordinal];
+        if (!Double.isNaN(previousLat) && !Double.isNaN(previousLng)) {
+            RoaringBitmap previousCell = cells.get(key(row(previousLat), col(previousLng)));
+            if (previousCell != null) {
+                previousCell.remove(ordinal);
+            }
+        }
+
+        if (publication.getLatitude() == null || publication.getLongitude() == null) {
+            latitudes[ordinal] = Double.NaN;
+            longitudes[ordinal] = Double.NaN;
+            return;
+        }
+
+        double lat = publication.getLatitude().doubleValue();
+        double lng = publication.getLongitude().doubleValue();
+        latitudes[ordinal] = lat;
+        longitudes[ordinal] = lng;
+        cells.computeIfAbsent(key(row(lat), col(lng)), key -> new RoaringBitmap()).add(ordinal);
+    }
+
+    private void ensureCapacity(int ordinal) {
+        if (ordinal >= latitudes.length) {
+            int previousLength = latitudes.length;
+            int capacity = Math.max(ordinal + 1, previousLength * 2);
+            latitudes = Arrays.copyOf(latitudes, capacity);
+            longitudes = Arrays.copyOf(longitudes, capacity);
+            Arrays.fill(latitudes, previousLength, capacity, Double.NaN);
+            Arrays.fill(longitudes, previousLength, capacity, Double.NaN);
+        }
+    }
+
+    private static double[] emptyColumn(int capacity) {
+        double[] column = new double[capacity];
+        Arrays.fill(column, Double.NaN);
+        return column;
+    }
+
+    private static int row(double lat) {
+        return (int) Math.floor((lat + 90.0) / CELL_DEGREES);
+    }
+
+    private static int col(double lng) {
+        return (int) Math.floor((lng + 180.0) / CELL_DEGREES);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+}
@@ -0,0 +1,88 @@
+package org.milianz.inmomarketbackend.Search;
+
+import lombok.RequiredArgsConstructor;
+import org.milianz.inmomarketbackend.Domain.Entities.Publication;
+import org.milianz.inmomarketbackend.Domain.Repositories.iPublicationRepository;
+import org.milianz.inmomarketbackend.Utils.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.List;
+
+// Carga todos los índices de publicaciones con una sola lectura y les reparte cada cambio confirmado.
+// Los cambios que se confirman mientras dura la carga esperan en una lista y se aplican encima de ella,
+// en el orden en que llegaron: la lectura inicial nunca tapa un cambio más nuevo.
+@Component
+@RequiredArgsConstructor
+public class PublicationIndexLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicationIndexLoader.class);
+
+    private final iPublicationRepository publicationRepository;
+    private final PublicationCardStore publicationCardStore;
+    private final PublicationColumnIndex publicationColumnIndex;
+    private final PublicationFacetIndex publicationFacetIndex;
+    private final PublicationGeoIndex publicationGeoIndex;
+    private final PublicationClusterIndex publicationClusterIndex;
+    private final PublicationTextIndex publicationTextIndex;
+    private final LocationSuggestionIndex locationSuggestionIndex;
+
+    // Protegidos por el monitor de waiting
+    private final List<IndexedPublication> waiting = new ArrayList<>();
+    private boolean loaded = false;
+
+    // Después de FavoriteCounters, que las tarjetas necesitan para copiar el conteo
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        List<Publication> publications = publicationRepository.findAllForIndex();
+        List<IndexedPublication> snapshot = publications.stream().map(IndexedPublication::of).toList();
+
+        publicationCardStore.load(publications);
+        // Las columnas primero: asignan los ordinales en el orden de creación de la lectura
+        publicationColumnIndex.load(snapshot);
+        publicationFacetIndex.load(snapshot);
+        publicationGeoIndex.load(snapshot);
+        publicationClusterIndex.load(snapshot);
+        publicationTextIndex.load(snapshot);
+        locationSuggestionIndex.load(snapshot);
+
+        int replayed;
+        synchronized (waiting) {
+            replayed = waiting.size();
+            waiting.forEach(this::dispatch);
+            waiting.clear();
+            loaded = true;
+        }
+        logger.info("Publication indexes loaded with {} publications, {} changes replayed", snapshot.size(), replayed);
+    }
+
+    @EventListener
+    public void onPublicationChanged(PublicationChangedEvent event) {
+        IndexedPublication publication = IndexedPublication.of(event.getPublication());
+        TransactionHooks.afterCommit(() -> apply(publication));
+    }
+
+    private void apply(IndexedPublication publication) {
+        synchronized (waiting) {
+            if (!loaded) {
+                waiting.add(publication);
+                return;
+            }
+        }
+        dispatch(publication);
+    }
+
+    private void dispatch(IndexedPublication publication) {
+        publicationColumnIndex.index(publication);
+        publicationFacetIndex.index(publication);
+        publicationGeoIndex.index(publication);
+        publicationClusterIndex.index(publication);
+        publicationTextIndex.index(publication);
+        locationSuggestionIndex.index(publication);
+    }
+}
@@ -0,0 +1,144 @@
+package org.milianz.inmomarketbackend.Search;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// JSON ya serializado de cada tarjeta, guardado fuera del heap en un búfer circular de tamaño fijo.
+// Las respuestas se arman concatenando esos bytes, sin volver a pasar por Jackson.
+// Al dar la vuelta, lo nuevo pisa lo más antiguo: una entrada sigue viva mientras no haya sido sobrescrita.
+@Component
+public class PublicationJsonCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicationJsonCache.class);
+
+    private static final byte[] PAGE_START = "{\"items\":[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PAGE_CURSOR = "],\"nextCursor\":".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper;
+    private final ByteBuffer arena;
+    private final int capacity;
+
+    private final Map<UUID, Slot> slots = new HashMap<>();
+    // Posición absoluta de escritura; la física es head % capacity
+    private long head = 0;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public PublicationJsonCache(ObjectMapper objectMapper,
+                                @Value("${inmo.cache.publication-json-mb:64}") int capacityMb) {
+        this.objectMapper = objectMapper;
+        this.capacity = capacityMb * 1024 * 1024;
+        this.arena = ByteBuffer.allocateDirect(capacity);
+        logger.info("Publication JSON cache allocated with {} MB off-heap", capacityMb);
+    }
+
+    public byte[] object(PublicationCard card) {
+        return bytesOf(card);
+    }
+
+    public byte[] array(List<PublicationCard> cards) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(cards.size() * 1024 + 2);
+        output.write('[');
+        writeItems(output, cards);
+        output.write(']');
+        return output.toByteArray();
+    }
+
+    // Misma forma que CursorPageResponse: {"items":[...],"nextCursor":...}
+    public byte[] page(List<PublicationCard> cards, String nextCursor) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(cards.size() * 1024 + 64);
+        output.writeBytes(PAGE_START);
+        writeItems(output, cards);
+        output.writeBytes(PAGE_CURSOR);
+        output.writeBytes(serialize(nextCursor));
+        output.write('}');
+        return output.toByteArray();
+    }
+
+    private void writeItems(ByteArrayOutputStream output, List<PublicationCard> cards) {
+        for (int i = 0; i < cards.size(); i++) {
+            if (i > 0) {
+                output.write(',');
+            }
+            output.writeBytes(bytesOf(cards.get(i)));
+        }
+    }
+
+    private byte[] bytesOf(PublicationCard card) {
+        byte[] cached = read(card);
+        if (cached != null) {
+            return cached;
+        }
+        byte[] json = serialize(card.toDTO());
+        write(card, json);
+        return json;
+    }
+
+    // Solo vale si es la misma versión de la tarjeta y el búfer no la ha pisado todavía
+    private byte[] read(PublicationCard card) {
+        lock.readLock().lock();
+        try {
+            Slot slot = slots.get(card.getId());
+            if (slot == null || slot.version != card.getVersion() || slot.start < head - capacity) {
+                return null;
+            }
+            byte[] json = new byte[slot.length];
+            arena.get((int) (slot.start % capacity), json);
+            return json;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(PublicationCard card, byte[] json) {
+        // Una entrada enorme vaciaría el búfer para guardar una sola tarjeta
+        if (json.length > capacity / 16) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int offset = (int) (head % capacity);
+            if (offset + json.length > capacity) {
+                // No se parte una entrada entre el final y el inicio del búfer
+                head += capacity - offset;
+                offset = 0;
+            }
+            arena.put(offset, json);
+            slots.put(card.getId(), new Slot(card.getVersion(), head, json.length));
+            head += json.length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la publicación", e);
+        }
+    }
+
+    private static class Slot {
+        private final long version;
+        private final long start;
+        private final int length;
+
+        private Slot(long version, long start, int length) {
+            this.version = version;
+            this.start = start;
+            this.length = length;
+        }
+    }
+}
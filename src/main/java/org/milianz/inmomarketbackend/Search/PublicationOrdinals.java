@@ -0,0 +1,40 @@
+package org.milianz.inmomarketbackend.Search;
+
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Asigna a cada publicación un entero denso para usarlo en los índices en memoria.
+// Los ordinales se asignan en orden de creación, por lo que un ordinal mayor es más reciente.
+@Component
+public class PublicationOrdinals {
+
+    private final Map<UUID, Integer> ordinals = new ConcurrentHashMap<>();
+    private final List<UUID> ids = new ArrayList<>();
+
+    public synchronized int ordinalFor(UUID publicationId) {
+        Integer existing = ordinals.get(publicationId);
+        if (existing != null) {
+            return existing;
+        }
+        int ordinal = ids.size();
+        ids.add(publicationId);
+        ordinals.put(publicationId, ordinal);
+        return ordinal;
+    }
+
+    public Integer find(UUID publicationId) {
+        return ordinals.get(publicationId);
+    }
+
+    public synchronized UUID idOf(int ordinal) {
+        return ids.get(ordinal);
+    }
+
+    public synchronized int size() {
+        return ids.size();
+    }
+}
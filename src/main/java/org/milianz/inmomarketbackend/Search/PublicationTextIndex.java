@@ -0,0 +1,238 @@
+package org.milianz.inmomarketbackend.Search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice invertido sobre título, dirección y descripción con ranking BM25.
+// El título y la dirección pesan más que la descripción repitiendo sus términos al indexar.
+@Component
+@RequiredArgsConstructor
+public class PublicationTextIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicationTextIndex.class);
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_WEIGHT = 3;
+    private static final int ADDRESS_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final PublicationOrdinals ordinals;
+
+    // Mayor puntaje primero; a igual puntaje, la publicación más reciente
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::getScore).reversed()
+            .thenComparing(Comparator.comparingInt(Hit::getOrdinal).reversed());
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Integer, Set<String>> documentTerms = new HashMap<>();
+    private int[] documentLengths = new int[1024];
+    private long totalLength = 0;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void load(List<IndexedPublication> publications) {
+        lock.writeLock().lock();
+        try {
+            publications.forEach(this::indexLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        logger.info("Text index loaded with {} terms", postings.size());
+    }
+
+    public void index(IndexedPublication publication) {
+        lock.writeLock().lock();
+        try {
+            indexLocked(publication);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Todos los ordinales que contienen algún término de la consulta
+    public RoaringBitmap matching(String query) {
+        Set<String> terms = new LinkedHashSet<>(SpanishAnalyzer.analyze(query));
+
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = new RoaringBitmap();
+            for (String term : terms) {
+                Postings termPostings = postings.get(term);
+                if (termPostings != null) {
+                    result.addN(termPostings.ordinals, 0, termPostings.size);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Candidatos que contienen algún término de la consulta, de mayor a menor puntaje y con el ordinal como desempate.
+    // Con un resultado de referencia solo se devuelven los que van después de él.
+    public List<Hit> search(String query, RoaringBitmap candidates, int limit, Hit after) {
+        Set<String> terms = new LinkedHashSet<>(SpanishAnalyzer.analyze(query));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int documents = documentTerms.size();
+            double averageLength = documents == 0 ? 0 : (double) totalLength / documents;
+            Map<Integer, Double> scores = new HashMap<>();
+
+            for (String term : terms) {
+                Postings termPostings = postings.get(term);
+                if (termPostings == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documents - termPostings.size + 0.5) / (termPostings.size + 0.5));
+                for (int i = 0; i < termPostings.size; i++) {
+                    int ordinal = termPostings.ordinals[i];
+                    if (!candidates.contains(ordinal)) {
+                        continue;
+                    }
+                    int frequency = termPostings.frequencies[i];
+                    double normalization = K1 * (1 - B + B * documentLengths[ordinal] / averageLength);
+                    double score = idf * frequency * (K1 + 1) / (frequency + normalization);
+                    scores.merge(ordinal, score, Double::sum);
+                }
+            }
+
+            // Min-heap acotado: el peor resultado queda arriba para descartarlo
+            PriorityQueue<Hit> best = new PriorityQueue<>(RANKING.reversed());
+            for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+                Hit hit = new Hit(entry.getKey(), entry.getValue());
+                if (after != null && RANKING.compare(hit, after) <= 0) {
+                    continue;
+                }
+                if (best.size() < limit) {
+                    best.add(hit);
+                } else if (RANKING.compare(hit, best.peek()) < 0) {
+                    best.poll();
+                    best.add(hit);
+                }
+            }
+
+            List<Hit> ranked = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                ranked.add(best.poll());
+            }
+            Collections.reverse(ranked);
+            return ranked;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void indexLocked(IndexedPublication publication) {
+        int ordinal = ordinals.ordinalFor(publication.getId());
+        removeLocked(ordinal);
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        addTerms(frequencies, publication.getTitle(), TITLE_WEIGHT);
+        addTerms(frequencies, publication.getAddress(), ADDRESS_WEIGHT);
+        addTerms(frequencies, publication.getDescription(), DESCRIPTION_WEIGHT);
+        if (frequencies.isEmpty()) {
+            return;
+        }
+
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), key -> new Postings()).put(ordinal, entry.getValue());
+            length += entry.getValue();
+        }
+
+        ensureCapacity(ordinal);
+        documentLengths[ordinal] = length;
+        totalLength += length;
+        documentTerms.put(ordinal, frequencies.keySet());
+    }
+
+    private void removeLocked(int ordinal) {
+        Set<String> previous = documentTerms.remove(ordinal);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous) {
+            Postings termPostings = postings.get(term);
+            termPostings.remove(ordinal);
+            if (termPostings.size == 0) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= documentLengths[ordinal];
+        documentLengths[ordinal] = 0;
+    }
+
+    private void addTerms(Map<String, Integer> frequencies, String text, int weight) {
+        for (String term : SpanishAnalyzer.analyze(text)) {
+            frequencies.merge(term, weight, Integer::sum);
+        }
+    }
+
+    private void ensureCapacity(int ordinal) {
+        if (ordinal >= documentLengths.length) {
+            documentLengths = Arrays.copyOf(documentLengths, Math.max(ordinal + 1, documentLengths.length * 2));
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Hit {
+        private final int ordinal;
+        private final double score;
+    }
+
+    // Lista de ordinales ordenada con su frecuencia, en arreglos primitivos para no crear objetos por documento
+    private static class Postings {
+        private int[] ordinals = new int[4];
+        private int[] frequencies = new int[4];
+        private int size = 0;
+
+        private void put(int ordinal, int frequency) {
+            int position = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (position >= 0) {
+                frequencies[position] = frequency;
+                return;
+            }
+            int insertAt = -position - 1;
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            System.arraycopy(ordinals, insertAt, ordinals, insertAt + 1, size - insertAt);
+            System.arraycopy(frequencies, insertAt, frequencies, insertAt + 1, size - insertAt);
+            ordinals[insertAt] = ordinal;
+            frequencies[insertAt] = frequency;
+            size++;
+        }
+
+        private void remove(int ordinal) {
+            int position = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(ordinals, position + 1, ordinals, position, size - position - 1);
+            System.arraycopy(frequencies, position + 1, frequencies, position, size - position - 1);
+            size--;
+        }
+    }
+}
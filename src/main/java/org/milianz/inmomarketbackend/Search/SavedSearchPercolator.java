@@ -0,0 +1,386 @@
+package org.milianz.inmomarketbackend.Search;
+
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.milianz.inmomarketbackend.Domain.Entities.Publication;
+import org.milianz.inmomarketbackend.Domain.Entities.SavedSearch;
+import org.milianz.inmomarketbackend.Domain.Entities.SavedSearchMatch;
+import org.milianz.inmomarketbackend.Domain.Repositories.iPublicationRepository;
+import org.milianz.inmomarketbackend.Domain.Repositories.iSavedSearchMatchRepository;
+import org.milianz.inmomarketbackend.Domain.Repositories.iSavedSearchRepository;
+import org.milianz.inmomarketbackend.Domain.Repositories.iUserRepository;
+import org.milianz.inmomarketbackend.Utils.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice invertido de búsquedas guardadas: cada búsqueda se registra bajo su condición más selectiva
+// (barrio, municipio, departamento, tipo, habitaciones o rango de precio). Al activarse una publicación
+// solo se verifican las búsquedas registradas bajo sus propias claves, no todas.
+@Component
+@RequiredArgsConstructor
+public class SavedSearchPercolator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SavedSearchPercolator.class);
+
+    private static final int MAX_PRICE_BUCKET = 40;
+    private static final int FLUSH_BATCH_SIZE = 500;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final String ALL = "*";
+
+    private final iSavedSearchRepository savedSearchRepository;
+    private final iSavedSearchMatchRepository savedSearchMatchRepository;
+    private final iUserRepository userRepository;
+    private final iPublicationRepository publicationRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, Set<UUID>> anchors = new HashMap<>();
+    private final Map<UUID, Criteria> criteria = new HashMap<>();
+    private final ConcurrentLinkedQueue<PendingMatch> pending = new ConcurrentLinkedQueue<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        List<SavedSearch> savedSearches = savedSearchRepository.findAll();
+
+        lock.writeLock().lock();
+        try {
+            for (SavedSearch savedSearch : savedSearches) {
+                registerLocked(new Criteria(savedSearch, anchorKeys(savedSearch)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        logger.info("Saved search percolator loaded with {} searches", criteria.size());
+    }
+
+    // Altas y bajas se aplican al confirmar, para que el percolador tenga las mismas búsquedas que la base de datos
+    public void register(SavedSearch savedSearch) {
+        Criteria entry = new Criteria(savedSearch, anchorKeys(savedSearch));
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                registerLocked(entry);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void unregister(UUID savedSearchId) {
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                Criteria removed = criteria.remove(savedSearchId);
+                if (removed != null) {
+                    for (String key : removed.anchorKeys) {
+                        Set<UUID> ids = anchors.get(key);
+                        ids.remove(savedSearchId);
+                        if (ids.isEmpty()) {
+                            anchors.remove(key);
+                        }
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Solo interesan publicaciones que acaban de quedar visibles: nuevas o reactivadas
+    @EventListener
+    public void onPublicationChanged(PublicationChangedEvent event) {
+        if (!event.becameActive()) {
+            return;
+        }
+        Publication publication = event.getPublication();
+        LocalDateTime now = LocalDateTime.now();
+        List<PendingMatch> matches = new ArrayList<>();
+        for (Criteria match : percolate(publication)) {
+            matches.add(new PendingMatch(match.userId, match.savedSearchId, publication.getId(), now, 0));
+        }
+        // Si la publicación no llega a confirmarse, sus coincidencias tampoco se encolan
+        if (!matches.isEmpty()) {
+            TransactionHooks.afterCommit(() -> pending.addAll(matches));
+        }
+    }
+
+    private List<Criteria> percolate(Publication publication) {
+        List<String> keys = probeKeys(publication);
+        UUID ownerId = publication.getUser() != null ? publication.getUser().getId() : null;
+
+        lock.readLock().lock();
+        try {
+            List<Criteria> matches = new ArrayList<>();
+            for (String key : keys) {
+                for (UUID savedSearchId : anchors.getOrDefault(key, Set.of())) {
+                    Criteria candidate = criteria.get(savedSearchId);
+                    if (!candidate.userId.equals(ownerId) && candidate.matches(publication)) {
+                        matches.add(candidate);
+                    }
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Las coincidencias se guardan en lotes para no hacer un insert por búsqueda dentro de la creación.
+    // Cada lote va en su propia transacción: si falla, se reintenta fila por fila para que una coincidencia
+    // inválida no arrastre a las demás, y las que vuelven a fallar regresan a la cola hasta MAX_ATTEMPTS veces
+    @Scheduled(fixedDelay = 2000)
+    public void flush() {
+        List<PendingMatch> batch = new ArrayList<>(FLUSH_BATCH_SIZE);
+        List<PendingMatch> retry = new ArrayList<>();
+        PendingMatch next;
+        while ((next = pending.poll()) != null) {
+            // La búsqueda pudo borrarse mientras la coincidencia esperaba en la cola
+            if (!isRegistered(next.savedSearchId)) {
+                continue;
+            }
+            batch.add(next);
+            if (batch.size() == FLUSH_BATCH_SIZE) {
+                save(batch, retry);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            save(batch, retry);
+        }
+        // Vuelven a la cola después de vaciarla, para intentarlo en la próxima pasada y no en esta
+        pending.addAll(retry);
+    }
+
+    private void save(List<PendingMatch> batch, List<PendingMatch> retry) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    savedSearchMatchRepository.saveAll(batch.stream().map(this::toEntity).toList()));
+            return;
+        } catch (RuntimeException e) {
+            logger.warn("Saved search match batch of {} failed, retrying one by one: {}", batch.size(), e.toString());
+        }
+        for (PendingMatch match : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> savedSearchMatchRepository.save(toEntity(match)));
+            } catch (RuntimeException e) {
+                if (match.attempts + 1 < MAX_ATTEMPTS) {
+                    retry.add(match.retried());
+                } else {
+                    logger.error("Dropping saved search match {} for publication {} after {} attempts: {}",
+                            match.savedSearchId, match.publicationId, MAX_ATTEMPTS, e.toString());
+                }
+            }
+        }
+    }
+
+    private SavedSearchMatch toEntity(PendingMatch match) {
+        return SavedSearchMatch.builder()
+                .user(userRepository.getReferenceById(match.userId))
+                .savedSearch(savedSearchRepository.getReferenceById(match.savedSearchId))
+                .publication(publicationRepository.getReferenceById(match.publicationId))
+                .matchedAt(match.matchedAt)
+                .build();
+    }
+
+    private boolean isRegistered(UUID savedSearchId) {
+        lock.readLock().lock();
+        try {
+            return criteria.containsKey(savedSearchId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void registerLocked(Criteria entry) {
+        criteria.put(entry.savedSearchId, entry);
+        for (String key : entry.anchorKeys) {
+            anchors.computeIfAbsent(key, k -> new HashSet<>()).add(entry.savedSearchId);
+        }
+    }
+
+    // La condición más selectiva que tenga la búsqueda; el precio se reparte en varios rangos
+    private static List<String> anchorKeys(SavedSearch search) {
+        if (search.getNeighborhood() != null) {
+            return List.of(neighborhoodKey(search.getNeighborhood()));
+        }
+        if (search.getMunicipality() != null) {
+            return List.of(municipalityKey(search.getMunicipality()));
+        }
+        if (search.getDepartment() != null) {
+            return List.of(departmentKey(search.getDepartment()));
+        }
+        if (search.getTypeName() != null) {
+            return List.of(typeKey(search.getTypeName()));
+        }
+        if (search.getBedrooms() != null) {
+            return List.of(bedroomsKey(search.getBedrooms()));
+        }
+        if (search.getMinPrice() != null || search.getMaxPrice() != null) {
+            int from = search.getMinPrice() != null ? priceBucket(search.getMinPrice()) : 0;
+            int to = search.getMaxPrice() != null ? priceBucket(search.getMaxPrice()) : MAX_PRICE_BUCKET;
+            List<String> keys = new ArrayList<>();
+            for (int bucket = from; bucket <= to; bucket++) {
+                keys.add(priceKey(bucket));
+            }
+            return keys;
+        }
+        return List.of(ALL);
+    }
+
+    private static List<String> probeKeys(Publication publication) {
+        List<String> keys = new ArrayList<>();
+        if (publication.getLocation() != null) {
+            keys.add(neighborhoodKey(publication.getLocation().getNeighborhood()));
+            keys.add(municipalityKey(publication.getLocation().getMunicipality()));
+            keys.add(departmentKey(publication.getLocation().getDepartment()));
+        }
+        if (publication.getPropertyType() != null) {
+            keys.add(typeKey(publication.getPropertyType().getTypeName()));
+        }
+        if (publication.getPropertyBedrooms() != null) {
+            keys.add(bedroomsKey(publication.getPropertyBedrooms()));
+        }
+        if (publication.getPropertyPrice() != null) {
+            keys.add(priceKey(priceBucket(publication.getPropertyPrice())));
+        }
+        keys.add(ALL);
+        return keys;
+    }
+
+    // Las claves usan un solo valor; el resto de la búsqueda se comprueba al verificar cada candidata
+    private static String neighborhoodKey(String neighborhood) {
+        return "neighborhood:" + neighborhood;
+    }
+
+    private static String municipalityKey(String municipality) {
+        return "municipality:" + municipality;
+    }
+
+    private static String departmentKey(String department) {
+        return "department:" + department;
+    }
+
+    private static String typeKey(String typeName) {
+        return "type:" + typeName;
+    }
+
+    private static String bedroomsKey(int bedrooms) {
+        return "bedrooms:" + bedrooms;
+    }
+
+    private static String priceKey(int bucket) {
+        return "price:" + bucket;
+    }
+
+    // Rangos logarítmicos: cada uno cubre el doble que el anterior
+    private static int priceBucket(BigDecimal price) {
+        long value = price.longValue();
+        if (value <= 1) {
+            return 0;
+        }
+        return Math.min(MAX_PRICE_BUCKET, 63 - Long.numberOfLeadingZeros(value));
+    }
+
+    // Copia inmutable de las condiciones de una búsqueda guardada
+    private static class Criteria {
+        private final UUID savedSearchId;
+        private final UUID userId;
+        private final String department;
+        private final String municipality;
+        private final String neighborhood;
+        private final String typeName;
+        private final BigDecimal minPrice;
+        private final BigDecimal maxPrice;
+        private final BigDecimal minSize;
+        private final BigDecimal maxSize;
+        private final Integer bedrooms;
+        private final Integer floors;
+        private final Integer parking;
+        private final Boolean furnished;
+        private final List<String> anchorKeys;
+
+        private Criteria(SavedSearch search, List<String> anchorKeys) {
+            this.savedSearchId = search.getId();
+            this.userId = search.getUser().getId();
+            this.department = search.getDepartment();
+            this.municipality = search.getMunicipality();
+            this.neighborhood = search.getNeighborhood();
+            this.typeName = search.getTypeName();
+            this.minPrice = search.getMinPrice();
+            this.maxPrice = search.getMaxPrice();
+            this.minSize = search.getMinSize();
+            this.maxSize = search.getMaxSize();
+            this.bedrooms = search.getBedrooms();
+            this.floors = search.getFloors();
+            this.parking = search.getParking();
+            this.furnished = search.getFurnished();
+            this.anchorKeys = anchorKeys;
+        }
+
+        private boolean matches(Publication publication) {
+            if (publication.getLocation() != null) {
+                if (!accepts(department, publication.getLocation().getDepartment())
+                        || !accepts(municipality, publication.getLocation().getMunicipality())
+                        || !accepts(neighborhood, publication.getLocation().getNeighborhood())) {
+                    return false;
+                }
+            } else if (department != null || municipality != null || neighborhood != null) {
+                return false;
+            }
+            String publicationType = publication.getPropertyType() != null ? publication.getPropertyType().getTypeName() : null;
+            return accepts(typeName, publicationType)
+                    && accepts(bedrooms, publication.getPropertyBedrooms())
+                    && accepts(floors, publication.getPropertyFloors())
+                    && accepts(parking, publication.getPropertyParking())
+                    && accepts(furnished, publication.getPropertyFurnished())
+                    && within(publication.getPropertyPrice(), minPrice, maxPrice)
+                    && within(publication.getPropertySize(), minSize, maxSize);
+        }
+
+        private static boolean accepts(Object expected, Object actual) {
+            return expected == null || Objects.equals(expected, actual);
+        }
+
+        private static boolean within(BigDecimal value, BigDecimal min, BigDecimal max) {
+            if (min == null && max == null) {
+                return true;
+            }
+            return value != null
+                    && (min == null || value.compareTo(min) >= 0)
+                    && (max == null || value.compareTo(max) <= 0);
+        }
+    }
+
+    @AllArgsConstructor
+    private static class PendingMatch {
+        private final UUID userId;
+        private final UUID savedSearchId;
+        private final UUID publicationId;
+        private final LocalDateTime matchedAt;
+        private final int attempts;
+
+        private PendingMatch retried() {
+            return new PendingMatch(userId, savedSearchId, publicationId, matchedAt, attempts + 1);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.milianz.inmomarketbackend.Search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Normaliza texto en español para el índice de texto: minúsculas, sin tildes, sin palabras vacías
+// y con una reducción ligera de plurales y género.
+public final class SpanishAnalyzer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+    private static final int MIN_PLURAL_LENGTH = 4;
+    private static final int MIN_STEM_LENGTH = 5;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "al", "algo", "algunas", "algunos", "ante", "antes", "como", "con", "contra", "cual", "cuando",
+            "de", "del", "desde", "donde", "durante", "e", "el", "ella", "ellas", "ellos", "en", "entre", "era",
+            "es", "esa", "esas", "ese", "eso", "esos", "esta", "estan", "estas", "este", "esto", "estos", "fue",
+            "ha", "hay", "hasta", "la", "las", "le", "les", "lo", "los", "mas", "me", "mi", "mis", "mucho",
+            "muy", "nada", "ni", "no", "nos", "o", "otra", "otras", "otro", "otros", "para", "pero", "poco",
+            "por", "porque", "que", "quien", "se", "ser", "si", "sin", "sobre", "son", "su", "sus", "tambien",
+            "te", "tiene", "todo", "todos", "tu", "un", "una", "uno", "unos", "y", "ya", "yo"
+    );
+
+    private SpanishAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+
+        for (String token : SEPARATORS.split(fold(text))) {
+            if (token.isEmpty() || STOP_WORDS.contains(token)) {
+                continue;
+            }
+            terms.add(stem(token));
+        }
+        return terms;
+    }
+
+    // Quita tildes y diéresis: "habitación" y "habitacion" producen el mismo término
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("");
+    }
+
+    // Primero se quita el plural y luego la vocal final, para que "casa" y "casas" den el mismo término
+    private static String stem(String term) {
+        String singular = term;
+        int length = term.length();
+        if (length >= MIN_PLURAL_LENGTH && term.charAt(length - 1) == 's') {
+            if (term.endsWith("ces")) {
+                singular = term.substring(0, length - 3) + "z";
+            } else if (term.endsWith("es") && length >= MIN_STEM_LENGTH && !isVowel(term.charAt(length - 3))) {
+                singular = term.substring(0, length - 2);
+            } else if (isVowel(term.charAt(length - 2))) {
+                singular = term.substring(0, length - 1);
+            }
+        }
+
+        int singularLength = singular.length();
+        char last = singular.charAt(singularLength - 1);
+        if (singularLength >= MIN_STEM_LENGTH && (last == 'a' || last == 'e' || last == 'o')) {
+            return singular.substring(0, singularLength - 1);
+        }
+        return singular;
+    }
+
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+}
@@ -0,0 +1,298 @@
+package org.milianz.inmomarketbackend.Search;
+
+import lombok.RequiredArgsConstructor;
+import org.milianz.inmomarketbackend.Domain.Entities.Publication;
+import org.milianz.inmomarketbackend.Domain.Entities.PublicationStats;
+import org.milianz.inmomarketbackend.Domain.Repositories.iFavoriteRepository;
+import org.milianz.inmomarketbackend.Domain.Repositories.iPublicationRepository;
+import org.milianz.inmomarketbackend.Domain.Repositories.iPublicationStatsRepository;
+import org.milianz.inmomarketbackend.Utils.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Ranking de tendencia con decaimiento exponencial hacia adelante: cada favorito o visita suma su peso
+// multiplicado por e^(λ·(t - referencia)). Así los puntajes solo crecen con la actividad y el orden relativo
+// no cambia con el paso del tiempo, por lo que el ranking ordenado se mantiene sin recalcularlo.
+@Component
+@RequiredArgsConstructor
+public class TrendingIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingIndex.class);
+
+    private static final double HALF_LIFE_SECONDS = 3 * 24 * 3600;
+    private static final double LAMBDA = Math.log(2) / HALF_LIFE_SECONDS;
+    private static final double FAVORITE_WEIGHT = 5;
+    private static final double VIEW_WEIGHT = 1;
+    // Antes de que los factores se acerquen al límite de double se mueve la referencia al presente
+    private static final double MAX_EXPONENT = 500;
+    public static final int MAX_TOP = 50;
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    private final iPublicationStatsRepository publicationStatsRepository;
+    private final iFavoriteRepository favoriteRepository;
+    private final iPublicationRepository publicationRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Mayor puntaje primero; a igual puntaje, por id para que el orden sea total
+    private static final Comparator<Ranked> RANKING = Comparator
+            .comparingDouble((Ranked ranked) -> ranked.score).reversed()
+            .thenComparing(ranked -> ranked.publicationId);
+
+    private final Map<UUID, Double> scores = new HashMap<>();
+    private final TreeSet<Ranked> ranking = new TreeSet<>(RANKING);
+    private final Set<UUID> active = new HashSet<>();
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicLong version = new AtomicLong();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private double landmark = now();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        List<UUID> activeIds = publicationRepository.findIdsByStatus(Publication.PublicationStatus.ACTIVE);
+        List<PublicationStats> stats = publicationStatsRepository.findAll();
+        List<Object[]> favorites = stats.isEmpty() ? favoriteRepository.findAllSavedAt() : List.of();
+
+        lock.writeLock().lock();
+        try {
+            if (stats.isEmpty()) {
+                // Primer arranque: el puntaje se reconstruye con la fecha de cada favorito
+                for (Object[] row : favorites) {
+                    UUID publicationId = (UUID) row[0];
+                    scores.merge(publicationId, FAVORITE_WEIGHT * growth(seconds((LocalDateTime) row[1])), Double::sum);
+                    dirty.add(publicationId);
+                }
+            } else {
+                for (PublicationStats row : stats) {
+                    if (row.getTrendingScore() > 0 && row.getTrendingUpdatedAt() != null) {
+                        scores.merge(row.getPublicationId(),
+                                row.getTrendingScore() * growth(seconds(row.getTrendingUpdatedAt())), Double::sum);
+                    }
+                }
+            }
+            active.addAll(activeIds);
+            ranking.clear();
+            scores.forEach((publicationId, score) -> {
+                if (score > 0 && active.contains(publicationId)) {
+                    ranking.add(new Ranked(publicationId, score));
+                }
+            });
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        logger.info("Trending index loaded with {} ranked publications", ranking.size());
+    }
+
+    // Cada favorito pesa según su fecha: al quitarlo se descuenta lo mismo que sumó, no el peso de uno nuevo
+    @EventListener
+    public void onFavoriteChanged(FavoriteChangedEvent event) {
+        double weight = event.isAdded() ? FAVORITE_WEIGHT : -FAVORITE_WEIGHT;
+        double at = event.getSavedAt() != null ? seconds(event.getSavedAt()) : now();
+        TransactionHooks.afterCommit(() -> add(event.getPublicationId(), weight, at));
+    }
+
+    public void recordView(UUID publicationId) {
+        add(publicationId, VIEW_WEIGHT, now());
+    }
+
+    // Como el resto de los índices, el cambio de estado se aplica al confirmar: si se revierte, el ranking no cambia
+    @EventListener
+    public void onPublicationChanged(PublicationChangedEvent event) {
+        UUID publicationId = event.getPublication().getId();
+        boolean isActive = event.getPublication().getStatus() == Publication.PublicationStatus.ACTIVE;
+        TransactionHooks.afterCommit(() -> setActive(publicationId, isActive));
+    }
+
+    private void setActive(UUID publicationId, boolean isActive) {
+        lock.writeLock().lock();
+        try {
+            Double score = scores.get(publicationId);
+            if (isActive) {
+                active.add(publicationId);
+                if (score != null && score > 0) {
+                    ranking.add(new Ranked(publicationId, score));
+                }
+            } else {
+                active.remove(publicationId);
+                if (score != null) {
+                    ranking.remove(new Ranked(publicationId, score));
+                }
+            }
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Las primeras publicaciones del ranking; solo recorre las que devuelve
+    public List<UUID> top(int limit) {
+        lock.readLock().lock();
+        try {
+            List<UUID> ids = new ArrayList<>(Math.min(limit, MAX_TOP));
+            for (Ranked ranked : ranking) {
+                if (ids.size() >= Math.min(limit, MAX_TOP)) {
+                    break;
+                }
+                ids.add(ranked.publicationId);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Cambia solo cuando se mueve algo dentro de las primeras MAX_TOP posiciones
+    public long version() {
+        return version.get();
+    }
+
+    // Se guarda el puntaje decaído hasta ahora, para poder retomarlo tras un reinicio.
+    // Igual que FavoriteCounters: lotes con su propia transacción y, si uno falla, sus ids vuelven a quedar pendientes.
+    @Scheduled(fixedDelay = 60000)
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<UUID> ids = new ArrayList<>(dirty);
+        dirty.removeAll(ids);
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<UUID, Double> current = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            double factor = growth(seconds(now));
+            for (UUID publicationId : ids) {
+                current.put(publicationId, scores.getOrDefault(publicationId, 0.0) / factor);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        for (int from = 0; from < ids.size(); from += FLUSH_BATCH_SIZE) {
+            List<UUID> batch = ids.subList(from, Math.min(from + FLUSH_BATCH_SIZE, ids.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> save(batch, current, now));
+            } catch (RuntimeException e) {
+                dirty.addAll(batch);
+                logger.warn("Trending flush of {} publications failed, will retry: {}", batch.size(), e.toString());
+            }
+        }
+    }
+
+    private void save(List<UUID> batch, Map<UUID, Double> current, LocalDateTime now) {
+        Map<UUID, PublicationStats> existing = new HashMap<>();
+        publicationStatsRepository.findAllById(batch).forEach(row -> existing.put(row.getPublicationId(), row));
+        List<PublicationStats> rows = new ArrayList<>(batch.size());
+        for (UUID publicationId : batch) {
+            PublicationStats row = existing.getOrDefault(publicationId,
+                    PublicationStats.builder().publicationId(publicationId).build());
+            row.setTrendingScore(current.get(publicationId));
+            row.setTrendingUpdatedAt(now);
+            rows.add(row);
+        }
+        publicationStatsRepository.saveAll(rows);
+    }
+
+    private void add(UUID publicationId, double weight, double at) {
+        lock.writeLock().lock();
+        try {
+            rebaseIfNeededLocked(now());
+            double before = scores.getOrDefault(publicationId, 0.0);
+            // El redondeo de double no debe dejar el puntaje en negativo
+            double after = Math.max(0, before + weight * growth(at));
+            scores.put(publicationId, after);
+            dirty.add(publicationId);
+
+            if (active.contains(publicationId)) {
+                Ranked previous = new Ranked(publicationId, before);
+                boolean wasTop = before > 0 && inTopLocked(previous);
+                if (before > 0) {
+                    ranking.remove(previous);
+                }
+                Ranked updated = new Ranked(publicationId, after);
+                if (after > 0) {
+                    ranking.add(updated);
+                }
+                if (wasTop || (after > 0 && inTopLocked(updated))) {
+                    version.incrementAndGet();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean inTopLocked(Ranked entry) {
+        int position = 0;
+        for (Ranked ranked : ranking) {
+            if (position++ >= MAX_TOP) {
+                return false;
+            }
+            if (ranked.publicationId.equals(entry.publicationId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Dividir todos los puntajes por el mismo factor no cambia el orden
+    private void rebaseIfNeededLocked(double now) {
+        if (LAMBDA * (now - landmark) < MAX_EXPONENT) {
+            return;
+        }
+        double factor = growth(now);
+        scores.replaceAll((publicationId, score) -> score / factor);
+        List<Ranked> rebased = new ArrayList<>(ranking.size());
+        for (Ranked ranked : ranking) {
+            rebased.add(new Ranked(ranked.publicationId, ranked.score / factor));
+        }
+        ranking.clear();
+        ranking.addAll(rebased);
+        landmark = now;
+    }
+
+    private double growth(double seconds) {
+        return Math.exp(LAMBDA * (seconds - landmark));
+    }
+
+    private static double now() {
+        return System.currentTimeMillis() / 1000.0;
+    }
+
+    // Las fechas se guardan en la hora local del servidor, igual que savedAt
+    private static double seconds(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond() + time.getNano() / 1e9;
+    }
+
+    private static class Ranked {
+        private final UUID publicationId;
+        private final double score;
+
+        private Ranked(UUID publicationId, double score) {
+            this.publicationId = publicationId;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package org.milianz.inmomarketbackend.Search;
+
+import lombok.RequiredArgsConstructor;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.FavoriteMarkable;
+import org.milianz.inmomarketbackend.Domain.Repositories.iFavoriteRepository;
+import org.milianz.inmomarketbackend.Utils.TransactionHooks;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Favoritos de los usuarios activos como bitmaps de ordinales, para marcar una página entera sin consultas.
+// Se guardan los usuarios usados más recientemente; el resto se carga con una consulta la próxima vez.
+// Los bitmaps no se modifican una vez publicados: cada cambio reemplaza el del usuario por una copia.
+@Component
+@RequiredArgsConstructor
+public class UserFavoriteSets {
+
+    private static final int MAX_USERS = 10_000;
+
+    private final iFavoriteRepository favoriteRepository;
+    private final PublicationOrdinals publicationOrdinals;
+
+    private final Map<UUID, RoaringBitmap> sets = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<UUID, RoaringBitmap> eldest) {
+                    return size() > MAX_USERS;
+                }
+            });
+    // Protegido por el monitor de sets, igual que el propio mapa
+    private final Map<UUID, Loading> inFlight = new HashMap<>();
+
+    public void mark(UUID userId, List<?> items) {
+        RoaringBitmap favorites = favoritesOf(userId);
+        for (Object item : items) {
+            if (item instanceof FavoriteMarkable markable) {
+                Integer ordinal = publicationOrdinals.find(markable.getId());
+                markable.setIsFavorite(ordinal != null && favorites.contains(ordinal));
+            }
+        }
+    }
+
+    @EventListener
+    public void onFavoriteChanged(FavoriteChangedEvent event) {
+        UUID userId = event.getUserId();
+        TransactionHooks.afterCommit(() -> {
+            // Los ordinales solo los asigna el índice, en orden de creación; aquí únicamente se consultan
+            Integer ordinal = publicationOrdinals.find(event.getPublicationId());
+            synchronized (sets) {
+                Loading loading = inFlight.get(userId);
+                if (ordinal == null) {
+                    // El índice todavía no cargó la publicación: el bitmap no puede reflejarla y se vuelve a leer después
+                    sets.remove(userId);
+                    if (loading != null) {
+                        loading.incomplete = true;
+                    }
+                    return;
+                }
+                Change change = new Change(ordinal, event.isAdded());
+                RoaringBitmap favorites = sets.get(userId);
+                if (favorites != null) {
+                    RoaringBitmap updated = favorites.clone();
+                    change.applyTo(updated);
+                    sets.put(userId, updated);
+                }
+                // Una carga en curso pudo leer antes de este cambio: se le aplica al terminar
+                if (loading != null) {
+                    loading.changes.add(change);
+                }
+            }
+        });
+    }
+
+    private RoaringBitmap favoritesOf(UUID userId) {
+        Loading loading;
+        synchronized (sets) {
+            RoaringBitmap cached = sets.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+            loading = inFlight.computeIfAbsent(userId, id -> new Loading());
+            loading.loaders++;
+        }
+
+        RoaringBitmap loaded = new RoaringBitmap();
+        boolean incomplete = false;
+        try {
+            for (UUID publicationId : favoriteRepository.findPublicationIdsByUserId(userId)) {
+                Integer ordinal = publicationOrdinals.find(publicationId);
+                if (ordinal != null) {
+                    loaded.add(ordinal);
+                } else {
+                    incomplete = true;
+                }
+            }
+        } catch (RuntimeException e) {
+            synchronized (sets) {
+                release(userId, loading);
+            }
+            throw e;
+        }
+        loaded.runOptimize();
+
+        synchronized (sets) {
+            // Agregar o quitar dos veces da lo mismo, así que no importa si la lectura ya incluía el cambio
+            loading.changes.forEach(change -> change.applyTo(loaded));
+            release(userId, loading);
+            // Mientras el índice se carga faltan ordinales: el resultado sirve para esta respuesta pero no se guarda
+            if (incomplete || loading.incomplete) {
+                return loaded;
+            }
+            // Si otro hilo lo cargó mientras tanto, se usa el suyo, que ya pudo recibir cambios
+            RoaringBitmap existing = sets.get(userId);
+            if (existing != null) {
+                return existing;
+            }
+            sets.put(userId, loaded);
+            return loaded;
+        }
+    }
+
+    private void release(UUID userId, Loading loading) {
+        if (--loading.loaders == 0) {
+            inFlight.remove(userId);
+        }
+    }
+
+    private static class Change {
+        private final int ordinal;
+        private final boolean added;
+
+        private Change(int ordinal, boolean added) {
+            this.ordinal = ordinal;
+            this.added = added;
+        }
+
+        private void applyTo(RoaringBitmap favorites) {
+            if (added) {
+                favorites.add(ordinal);
+            } else {
+                favorites.remove(ordinal);
+            }
+        }
+    }
+
+    // Cambios confirmados mientras se lee un usuario que todavía no está guardado
+    private static class Loading {
+        private final List<Change> changes = new ArrayList<>();
+        private int loaders;
+        private boolean incomplete;
+    }
+}
@@ -80,10 +80,11 @@ public class WebSecurityConfig {
                         // Rutas públicas - permitir sin autenticación
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/test/**").permitAll()
-                        .requestMatchers("api/publications/All").permitAll()
+                        .requestMatchers("/api/publications/All").permitAll()
                         .requestMatchers("/error").permitAll()
                         .requestMatchers("/api/publications/lastPublications").permitAll()
                         .requestMatchers("/api/publications/mostPopularPublications").permitAll()
+                        .requestMatchers("/api/images/**").permitAll()
                         // Rutas protegidas
                         .requestMatchers("/api/publications/**").authenticated()
                         .requestMatchers("/api/reports/create").hasRole("USER")
@@ -9,15 +9,20 @@ import org.milianz.inmomarketbackend.Domain.Entities.Publication;
 import org.milianz.inmomarketbackend.Domain.Entities.User;
 
 
+import org.milianz.inmomarketbackend.Domain.Repositories.KeysetSpecifications;
 import org.milianz.inmomarketbackend.Domain.Repositories.iFavoriteRepository;
 import org.milianz.inmomarketbackend.Domain.Repositories.iPublicationRepository;
 import org.milianz.inmomarketbackend.Domain.Repositories.iUserRepository;
+import org.milianz.inmomarketbackend.Payload.Response.CursorPageResponse;
 import org.milianz.inmomarketbackend.Payload.Response.MessageResponse;
+import org.milianz.inmomarketbackend.Search.FavoriteChangedEvent;
+import org.milianz.inmomarketbackend.Utils.CursorCodec;
 import org.milianz.inmomarketbackend.Utils.PublicationsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -31,10 +36,12 @@ import java.util.*;
 public class FavoriteService {
 
     private static final Logger logger = LoggerFactory.getLogger(FavoriteService.class);
+    private static final int MAX_PAGE_SIZE = 100;
 
     private final iFavoriteRepository favoriteRepository;
     private final iPublicationRepository publicationRepository;
     private final iUserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public ResponseEntity<?> toggleFavorite(FavoriteSaveDTO favoriteSaveDTO) {
@@ -58,13 +65,15 @@ public class FavoriteService {
             }
 
             // Verificar si ya está en favoritos
-            boolean isFavorite = favoriteRepository.existsByUserIdAndPublicationId(
+            Optional<Favorite> existing = favoriteRepository.findByUserIdAndPublicationId(
                     currentUser.getId(), favoriteSaveDTO.getPublicationId());
 
-            if (isFavorite) {
+            if (existing.isPresent()) {
                 // Si ya está en favoritos, lo quitamos
                 favoriteRepository.deleteByUserIdAndPublicationId(
                         currentUser.getId(), favoriteSaveDTO.getPublicationId());
+                eventPublisher.publishEvent(new FavoriteChangedEvent(
+                        currentUser.getId(), favoriteSaveDTO.getPublicationId(), false, existing.get().getSavedAt()));
 
                 logger.info("User {} removed publication {} from favorites",
                         currentUser.getEmail(), publication.getId());
@@ -84,6 +93,8 @@ public class FavoriteService {
                         .build();
 
                 favoriteRepository.save(favorite);
+                eventPublisher.publishEvent(new FavoriteChangedEvent(
+                        currentUser.getId(), favoriteSaveDTO.getPublicationId(), true, favorite.getSavedAt()));
 
                 logger.info("User {} added publication {} to favorites",
                         currentUser.getEmail(), publication.getId());
@@ -98,16 +109,28 @@ public class FavoriteService {
         }
     }
 
-    public Page<FavoriteDefaultDTO> getMyFavorites(Pageable pageable) {
+    @Transactional(readOnly = true)
+    public CursorPageResponse<FavoriteDefaultDTO> getMyFavorites(String cursor, int size) {
         User currentUser = getCurrentUser();
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
 
         // Obtener solo favoritos de publicaciones activas
-        Page<Favorite> favorites = favoriteRepository.findByUserIdAndPublication_StatusOrderBySavedAtDesc(
-                currentUser.getId(),
-                Publication.PublicationStatus.ACTIVE,
-                pageable);
+        Specification<Favorite> spec = KeysetSpecifications.<Favorite>equalTo("id.userId", currentUser.getId())
+                .and(KeysetSpecifications.equalTo("publication.status", Publication.PublicationStatus.ACTIVE));
+        if (cursor != null) {
+            String[] after = CursorCodec.decode(cursor, 2);
+            spec = spec.and(KeysetSpecifications.after("savedAt", CursorCodec.timestamp(after[0]),
+                    "id.publicationId", CursorCodec.uuid(after[1]), false));
+        }
+
+        List<Favorite> favorites = favoriteRepository.findBy(spec, query -> query
+                .project("publication", "publication.location", "publication.propertyType", "publication.user")
+                .sortBy(Sort.by(Sort.Direction.DESC, "savedAt", "id.publicationId"))
+                .limit(pageSize + 1)
+                .all());
 
-        return favorites.map(this::convertToFavoriteDTO);
+        return CursorPageResponse.of(favorites, pageSize, this::convertToFavoriteDTO,
+                favorite -> CursorCodec.encode(favorite.getSavedAt().toString(), favorite.getId().getPublicationId().toString()));
     }
 
     public ResponseEntity<?> checkIsFavorite(UUID publicationId) {
@@ -149,16 +172,18 @@ public class FavoriteService {
         try {
             User currentUser = getCurrentUser();
 
-            boolean exists = favoriteRepository.existsByUserIdAndPublicationId(
+            Optional<Favorite> existing = favoriteRepository.findByUserIdAndPublicationId(
                     currentUser.getId(), publicationId);
 
-            if (!exists) {
+            if (existing.isEmpty()) {
                 return ResponseEntity.badRequest()
                         .body(new MessageResponse("La publicación no está en favoritos"));
             }
 
             favoriteRepository.deleteByUserIdAndPublicationId(
                     currentUser.getId(), publicationId);
+            eventPublisher.publishEvent(new FavoriteChangedEvent(
+                    currentUser.getId(), publicationId, false, existing.get().getSavedAt()));
 
             logger.info("User {} removed publication {} from favorites",
                     currentUser.getEmail(), publicationId);
@@ -204,6 +229,7 @@ public class FavoriteService {
         favoriteDTO.setPropertyDescription(publicationDTO.getPropertyDescription());
         favoriteDTO.setPropertyPrice(publicationDTO.getPropertyPrice());
         favoriteDTO.setPropertyImageUrls(publicationDTO.getPropertyImageUrls());
+        favoriteDTO.setPropertyCardImageUrls(publicationDTO.getPropertyCardImageUrls());
         favoriteDTO.setAvailableTimes(publicationDTO.getAvailableTimes());
         favoriteDTO.setOwnerName(publicationDTO.getUserName());
         favoriteDTO.setSavedAt(favorite.getSavedAt());
@@ -0,0 +1,181 @@
+package org.milianz.inmomarketbackend.Services;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Versiones reducidas de cada imagen subida: tarjeta para listados y miniatura. La original sirve como versión
+// completa. Se generan en un grupo de hilos acotado, porque decodificar una foto grande ocupa CPU y memoria.
+@Service
+public class ImageRenditionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageRenditionService.class);
+
+    // Lado mayor de cada versión, en píxeles
+    private static final int CARD_SIZE = 800;
+    private static final int THUMBNAIL_SIZE = 240;
+    private static final float JPEG_QUALITY = 0.82f;
+
+    private final ThreadPoolExecutor executor;
+
+    public ImageRenditionService(@Value("${inmo.images.rendition-threads:2}") int threads) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 50), new CustomizableThreadFactory("image-rendition-"));
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    // Nunca falla: si el formato no se puede leer, la imagen se queda solo con la original
+    public CompletableFuture<Renditions> render(Path original) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return renderNow(original);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not render {}: {}", original.getFileName(), e.toString());
+                return Renditions.NONE;
+            }
+        }, executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Renditions renderNow(Path original) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                // Sin lector de ImageIO, por ejemplo WebP
+                return Renditions.NONE;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                // Se decodifica salteando píxeles, sin bajar del tamaño de la versión más grande
+                int step = Math.max(1, longest / CARD_SIZE);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+
+                BufferedImage card = fit(decoded, CARD_SIZE);
+                Path cardFile = write(card);
+                try {
+                    return new Renditions(cardFile, write(fit(card, THUMBNAIL_SIZE)));
+                } catch (IOException | RuntimeException e) {
+                    Files.deleteIfExists(cardFile);
+                    throw e;
+                }
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Reduce a la mitad mientras pueda y termina con un último paso; así la miniatura no pierde detalle de golpe
+    private static BufferedImage fit(BufferedImage source, int maxSide) {
+        int longest = Math.max(source.getWidth(), source.getHeight());
+        double scale = Math.min(1.0, (double) maxSide / longest);
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            current = draw(current, width, height);
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    // JPEG no tiene transparencia: se dibuja sobre fondo blanco
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static Path write(BufferedImage image) throws IOException {
+        Path target = Paths.get(System.getProperty("java.io.tmpdir"), "inmo-rendition-" + UUID.randomUUID() + ".jpg");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return target;
+    }
+
+    // Archivos temporales con las versiones; null si no se pudieron generar
+    public static class Renditions {
+        static final Renditions NONE = new Renditions(null, null);
+
+        private final Path card;
+        private final Path thumbnail;
+
+        private Renditions(Path card, Path thumbnail) {
+            this.card = card;
+            this.thumbnail = thumbnail;
+        }
+
+        public Path getCard() {
+            return card;
+        }
+
+        public Path getThumbnail() {
+            return thumbnail;
+        }
+
+        public void delete() {
+            for (Path file : new Path[]{card, thumbnail}) {
+                try {
+                    if (file != null) {
+                        Files.deleteIfExists(file);
+                    }
+                } catch (IOException e) {
+                    logger.warn("Could not delete rendition {}: {}", file, e.toString());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package org.milianz.inmomarketbackend.Services;
+
+import org.milianz.inmomarketbackend.Domain.Entities.PropertyImage;
+import org.milianz.inmomarketbackend.Domain.Entities.Publication;
+import org.milianz.inmomarketbackend.Domain.Repositories.iPropertyImageRepository;
+import org.milianz.inmomarketbackend.Search.PublicationCardStore;
+import org.milianz.inmomarketbackend.Storage.BlobStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Sube las imágenes al almacenamiento configurado (ver BlobStorage) y arma las PropertyImage con sus URLs
+@Service
+public class ImageStorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageStorageService.class);
+
+    @Autowired
+    private BlobStorage blobStorage;
+    @Autowired
+    private iPropertyImageRepository propertyImageRepository;
+    @Autowired
+    private PublicationCardStore publicationCardStore;
+    @Autowired
+    private ImageRenditionService imageRenditionService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    @Qualifier("imageUploadExecutor")
+    private ExecutorService imageUploadExecutor;
+    @Value("${inmo.upload.per-request:4}")
+    private int perRequestLimit;
+    @Value("${inmo.upload.timeout-seconds:30}")
+    private long timeoutSeconds;
+    @Value("${inmo.images.rendition-timeout-seconds:60}")
+    private long renditionTimeoutSeconds;
+
+    // Las imágenes se suben en paralelo, hasta perRequestLimit a la vez por petición, y se guardan en un solo lote.
+    // Si alguna falla o se pasa del tiempo se guardan las demás; solo es error que no se suba ninguna.
+    // Las versiones reducidas llegan después (ver renderLater). Quien llama ya validó el contenido de cada archivo.
+    public List<PropertyImage> uploadImage(MultipartFile[] files, Publication publication) throws IOException {
+        List<String> names = new ArrayList<>(files.length);
+        List<Path> spooled = new ArrayList<>(files.length);
+        List<PropertyImage> uploaded;
+        try {
+            for (MultipartFile file : files) {
+                names.add(file.getOriginalFilename());
+                spooled.add(spool(file));
+            }
+            uploaded = uploadAll(names, spooled);
+        } catch (IOException | RuntimeException e) {
+            spooled.forEach(this::deleteQuietly);
+            throw e;
+        }
+
+        List<PropertyImage> propertyImages = new ArrayList<>(files.length);
+        List<Path> sources = new ArrayList<>(files.length);
+        List<String> failed = new ArrayList<>();
+        for (int i = 0; i < files.length; i++) {
+            if (uploaded.get(i) == null) {
+                failed.add(names.get(i));
+                deleteQuietly(spooled.get(i));
+                continue;
+            }
+            PropertyImage propertyImage = uploaded.get(i);
+            propertyImage.setPublication(publication);
+            propertyImages.add(propertyImage);
+            sources.add(spooled.get(i));
+        }
+
+        if (propertyImages.isEmpty() && files.length > 0) {
+            throw new IOException("No se pudo subir ninguna imagen: " + String.join(", ", failed));
+        }
+        List<PropertyImage> saved;
+        try {
+            saved = propertyImageRepository.saveAll(propertyImages);
+        } catch (RuntimeException e) {
+            sources.forEach(this::deleteQuietly);
+            throw e;
+        }
+        renderLater(saved, sources);
+        return saved;
+    }
+
+    // Para imágenes ya guardadas en disco. Devuelve, en el mismo orden, la imagen con la URL de la original
+    // y sin publicación, o null si no se pudo subir
+    public List<PropertyImage> uploadFiles(List<Path> files) {
+        return uploadAll(files.stream().map(file -> file.getFileName().toString()).toList(), files);
+    }
+
+    private List<PropertyImage> uploadAll(List<String> names, List<Path> files) {
+        Semaphore permits = new Semaphore(perRequestLimit);
+        List<CompletableFuture<PropertyImage>> uploads = new ArrayList<>(files.size());
+        for (Path file : files) {
+            uploads.add(submitUpload(file, permits));
+        }
+
+        List<PropertyImage> images = new ArrayList<>(files.size());
+        for (int i = 0; i < uploads.size(); i++) {
+            try {
+                images.add(uploads.get(i).join());
+            } catch (CompletionException | CancellationException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                logger.warn("Image upload failed for {}: {}", names.get(i), cause.toString());
+                images.add(null);
+            }
+        }
+        return images;
+    }
+
+    private CompletableFuture<PropertyImage> submitUpload(Path file, Semaphore permits) {
+        try {
+            // Espera a que termine alguna subida de esta misma petición
+            if (!permits.tryAcquire(timeoutSeconds, TimeUnit.SECONDS)) {
+                return CompletableFuture.failedFuture(new TimeoutException("Sin turno para subir la imagen"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<PropertyImage> upload;
+        try {
+            // Solo la original: el tiempo de la subida no incluye decodificar la imagen
+            upload = CompletableFuture.supplyAsync(() -> {
+                try {
+                    PropertyImage image = new PropertyImage();
+                    image.setImageUrl(uploadFile(file));
+                    image.setIsMain(false);
+                    return image;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, imageUploadExecutor);
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            return CompletableFuture.failedFuture(e);
+        }
+        upload.whenComplete((image, error) -> permits.release());
+
+        // El tiempo corre desde que la subida entra a la cola; si termina tarde, la imagen ya no se usa y se borra
+        CompletableFuture<PropertyImage> bounded = upload.copy().orTimeout(timeoutSeconds, TimeUnit.SECONDS);
+        upload.thenAccept(image -> {
+            if (bounded.isCompletedExceptionally()) {
+                deleteImage(image.getImageUrl());
+            }
+        });
+        return bounded;
+    }
+
+    // Versiones reducidas de imágenes ya guardadas, generadas fuera de la petición y con su propio tiempo máximo.
+    // Hasta que llegan se muestra la original. Cada archivo de origen se borra apenas se termina de leer.
+    public void renderLater(List<PropertyImage> images, List<Path> sources) {
+        for (int i = 0; i < images.size(); i++) {
+            renderLater(images.get(i), sources.get(i));
+        }
+    }
+
+    private void renderLater(PropertyImage image, Path source) {
+        CompletableFuture<ImageRenditionService.Renditions> render;
+        try {
+            render = imageRenditionService.render(source);
+        } catch (RejectedExecutionException e) {
+            logger.warn("No renditions for {}: {}", image.getImageUrl(), e.toString());
+            deleteQuietly(source);
+            return;
+        }
+        render.whenComplete((renditions, error) -> deleteQuietly(source));
+
+        CompletableFuture<PropertyImage> rendered = render.thenApplyAsync(renditions -> {
+            PropertyImage versions = new PropertyImage();
+            versions.setImageUrl(image.getImageUrl());
+            try {
+                if (renditions.getCard() != null) {
+                    uploadRenditions(versions, renditions);
+                }
+                return versions;
+            } finally {
+                renditions.delete();
+            }
+        }, imageUploadExecutor);
+
+        CompletableFuture<PropertyImage> bounded = rendered.copy().orTimeout(renditionTimeoutSeconds, TimeUnit.SECONDS);
+        bounded.whenComplete((versions, error) -> {
+            if (error != null) {
+                logger.warn("Renditions for {} not saved: {}", image.getImageUrl(), error.toString());
+            } else if (versions.getCardUrl() != null) {
+                saveRenditions(image, versions);
+            }
+        });
+        rendered.thenAccept(versions -> {
+            if (bounded.isCompletedExceptionally()) {
+                deleteImage(versions.getCardUrl());
+                deleteImage(versions.getThumbnailUrl());
+            }
+        });
+    }
+
+    // Se escriben solo las dos columnas y se rearma la tarjeta de la publicación, que hasta ahora mostraba la original.
+    // También quedan en la misma instancia, por si quien la subió todavía arma algo con ella.
+    private void saveRenditions(PropertyImage image, PropertyImage versions) {
+        try {
+            Boolean saved = transactionTemplate.execute(status -> {
+                if (propertyImageRepository.updateRenditions(image.getId(), versions.getCardUrl(),
+                        versions.getThumbnailUrl()) == 0) {
+                    return false;
+                }
+                image.setCardUrl(versions.getCardUrl());
+                image.setThumbnailUrl(versions.getThumbnailUrl());
+                publicationCardStore.refresh(image.getPublication().getId());
+                return true;
+            });
+            if (Boolean.TRUE.equals(saved)) {
+                return;
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not save renditions for {}: {}", image.getImageUrl(), e.toString());
+        }
+        // La imagen ya no existe o no se pudo guardar
+        deleteImage(versions.getCardUrl());
+        deleteImage(versions.getThumbnailUrl());
+    }
+
+    // Con un archivo, el cliente envía el contenido por partes en lugar de tenerlo entero en memoria
+    private String uploadFile(Path file) throws IOException {
+        return blobStorage.store(file, null);
+    }
+
+    // Si falla alguna versión reducida la imagen se guarda igual; quien la muestre usará la original
+    private void uploadRenditions(PropertyImage image, ImageRenditionService.Renditions renditions) {
+        try {
+            image.setCardUrl(uploadFile(renditions.getCard()));
+            image.setThumbnailUrl(uploadFile(renditions.getThumbnail()));
+        } catch (IOException e) {
+            logger.warn("Rendition upload failed for {}: {}", image.getImageUrl(), e.toString());
+            deleteImage(image.getCardUrl());
+            image.setCardUrl(null);
+            image.setThumbnailUrl(null);
+        }
+    }
+
+    // El multipart queda en un archivo temporal propio; si ya estaba en disco, solo se mueve
+    private Path spool(MultipartFile file) throws IOException {
+        Path target = Paths.get(System.getProperty("java.io.tmpdir"), "inmo-upload-" + UUID.randomUUID());
+        file.transferTo(target);
+        return target;
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete temporary upload {}: {}", file, e.toString());
+        }
+    }
+
+    // Método sobrecargado para subir imágenes de perfil, ya validadas por UserService
+    public String uploadImage(MultipartFile file, String folder) throws IOException {
+        Path spooled = spool(file);
+        try {
+            return blobStorage.store(spooled, folder);
+        } finally {
+            deleteQuietly(spooled);
+        }
+    }
+
+    // Método para eliminar imágenes
+    public void deleteImage(String imageUrl) {
+        blobStorage.delete(imageUrl);
+    }
+}
@@ -1,11 +1,14 @@
 package org.milianz.inmomarketbackend.Services;
 
 
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.LocationSuggestionDTO;
 import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationSaveDTO;
 import org.milianz.inmomarketbackend.Domain.Entities.Location;
 import org.milianz.inmomarketbackend.Domain.Repositories.iLocationRepository;
+import org.milianz.inmomarketbackend.Search.LocationSuggestionIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -13,6 +16,8 @@ public class LocationService {
 
     @Autowired
     private iLocationRepository locationRepository;
+    @Autowired
+    private LocationSuggestionIndex locationSuggestionIndex;
 
     public Location createLocation(PublicationSaveDTO publicationSaveDTO) {
 
@@ -28,7 +33,19 @@ public class LocationService {
         location.setMunicipality(publicationSaveDTO.getMunicipality());
         location.setDepartment(publicationSaveDTO.getDepartment());
         location = locationRepository.save(location);
+        locationSuggestionIndex.add(location);
 
         return location;
     }
+
+    // Se responde desde el índice en memoria: cada tecla no debe llegar a la base de datos
+    public List<LocationSuggestionDTO> autocomplete(String query, Integer limit) {
+        if (!locationSuggestionIndex.isReady()) {
+            throw new IllegalStateException("El índice de ubicaciones aún no está disponible");
+        }
+        int size = limit == null || limit <= 0
+                ? LocationSuggestionIndex.MAX_SUGGESTIONS
+                : Math.min(limit, LocationSuggestionIndex.MAX_SUGGESTIONS);
+        return locationSuggestionIndex.suggest(query, size);
+    }
 }
@@ -0,0 +1,256 @@
+package org.milianz.inmomarketbackend.Services;
+
+import jakarta.annotation.PreDestroy;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationSaveDTO;
+import org.milianz.inmomarketbackend.Domain.Entities.PropertyImage;
+import org.milianz.inmomarketbackend.Domain.Entities.Publication;
+import org.milianz.inmomarketbackend.Domain.Repositories.iPublicationRepository;
+import org.milianz.inmomarketbackend.Payload.Response.PublicationCreationResponse;
+import org.milianz.inmomarketbackend.Utils.ImageValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.multipart.MultipartFile;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Creación asíncrona de publicaciones: la petición guarda la publicación como PENDING, deja las imágenes
+// en disco y responde de inmediato. Un hilo de fondo las sube con reintentos y al terminar la activa.
+// Cada publicación tiene su propia carpeta en disco, así que lo pendiente se retoma tras un reinicio.
+@Service
+public class PublicationCreationPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicationCreationPipeline.class);
+
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long FIRST_RETRY_SECONDS = 5;
+    private static final String STAGING_PREFIX = "staging-";
+    private static final String RENDERING_PREFIX = "rendering-";
+
+    @Autowired
+    private PublicationService publicationService;
+    @Autowired
+    private ImageStorageService imageStorageService;
+    @Autowired
+    private iPublicationRepository publicationRepository;
+    @Value("${inmo.upload.spool-dir:${java.io.tmpdir}/inmo-spool}")
+    private String spoolDir;
+
+    private final ScheduledExecutorService executor =
+            Executors.newScheduledThreadPool(2, new CustomizableThreadFactory("publication-pipeline-"));
+    // Imágenes que aún faltan por subir de cada publicación en proceso
+    private final Map<UUID, List<Path>> pending = new ConcurrentHashMap<>();
+
+    public PublicationCreationResponse start(PublicationSaveDTO publicationSaveDTO, String userName,
+                                             MultipartFile[] files) throws IOException {
+        if (files == null || files.length == 0) {
+            throw new IllegalArgumentException("La publicación necesita al menos una imagen");
+        }
+        for (MultipartFile file : files) {
+            ImageValidator.requireImage(file);
+        }
+
+        // Las imágenes se copian a disco antes de abrir la transacción; el multipart deja de existir con la petición
+        Files.createDirectories(root());
+        Path staging = Files.createTempDirectory(root(), STAGING_PREFIX);
+        Publication publication;
+        try {
+            for (int i = 0; i < files.length; i++) {
+                files[i].transferTo(staging.resolve(String.format("%03d", i)));
+            }
+            publication = publicationService.createPendingPublication(publicationSaveDTO, userName);
+        } catch (IOException | RuntimeException e) {
+            FileSystemUtils.deleteRecursively(staging);
+            throw e;
+        }
+
+        UUID publicationId = publication.getId();
+        try {
+            Files.move(staging, directoryOf(publicationId));
+        } catch (IOException e) {
+            FileSystemUtils.deleteRecursively(staging);
+            publicationService.completePendingPublication(publicationId, "No se pudieron preparar las imágenes");
+            throw e;
+        }
+
+        List<Path> spooled = spooledFiles(publicationId);
+        pending.put(publicationId, spooled);
+        executor.execute(() -> process(publicationId, 1));
+        return new PublicationCreationResponse(publicationId, Publication.PublicationStatus.PENDING, spooled.size(), null);
+    }
+
+    // Solo el dueño puede consultar el avance de su publicación
+    public Optional<PublicationCreationResponse> status(UUID publicationId, String userName) {
+        return publicationRepository.findWithDetailsById(publicationId)
+                .filter(publication -> publication.getUser().getEmail().equals(userName))
+                .map(publication -> new PublicationCreationResponse(publication.getId(), publication.getStatus(),
+                        pending.getOrDefault(publicationId, List.of()).size(), publication.getProcessingError()));
+    }
+
+    // Lo que quedó pendiente antes de apagar el servidor sigue en disco
+    @EventListener(ApplicationReadyEvent.class)
+    public void resume() throws IOException {
+        Path root = root();
+        if (Files.isDirectory(root)) {
+            try (Stream<Path> entries = Files.list(root)) {
+                for (Path entry : entries.toList()) {
+                    // Las versiones reducidas que quedaron a medias se pierden; esas imágenes muestran la original
+                    String name = entry.getFileName().toString();
+                    if (name.startsWith(STAGING_PREFIX) || name.startsWith(RENDERING_PREFIX)) {
+                        FileSystemUtils.deleteRecursively(entry);
+                    }
+                }
+            }
+        }
+
+        List<UUID> pendingIds = publicationRepository.findIdsByStatus(Publication.PublicationStatus.PENDING);
+        for (UUID publicationId : pendingIds) {
+            List<Path> spooled = spooledFiles(publicationId);
+            if (spooled.isEmpty()) {
+                publicationService.completePendingPublication(publicationId,
+                        "Las imágenes pendientes se perdieron antes de subirse");
+                continue;
+            }
+            pending.put(publicationId, spooled);
+            executor.execute(() -> process(publicationId, 1));
+        }
+        if (!pendingIds.isEmpty()) {
+            logger.info("Resumed {} pending publications", pendingIds.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void process(UUID publicationId, int attempt) {
+        List<Path> files = pending.get(publicationId);
+        try {
+            List<PropertyImage> images = imageStorageService.uploadFiles(files);
+            List<PropertyImage> uploaded = new ArrayList<>();
+            List<Path> uploadedFiles = new ArrayList<>();
+            List<Path> failed = new ArrayList<>();
+            for (int i = 0; i < files.size(); i++) {
+                if (images.get(i) != null) {
+                    uploaded.add(images.get(i));
+                    uploadedFiles.add(files.get(i));
+                } else {
+                    failed.add(files.get(i));
+                }
+            }
+
+            if (!uploaded.isEmpty()) {
+                try {
+                    publicationService.attachImages(publicationId, uploaded);
+                } catch (RuntimeException e) {
+                    // Ninguna fila las referencia y el próximo intento las vuelve a subir: se borran para no dejarlas huérfanas
+                    uploaded.forEach(image -> imageStorageService.deleteImage(image.getImageUrl()));
+                    throw e;
+                }
+            }
+            // Ya guardadas, no se vuelven a subir aunque falle lo que sigue
+            pending.put(publicationId, failed);
+            renderLater(uploaded, uploadedFiles);
+
+            if (failed.isEmpty()) {
+                finish(publicationId, null);
+            } else {
+                retryOrFinish(publicationId, attempt, failed.size() + " imágenes no se pudieron subir");
+            }
+        } catch (Exception e) {
+            logger.warn("Publication {} processing attempt {} failed: {}", publicationId, attempt, e.toString());
+            retryOrFinish(publicationId, attempt, "Error al procesar la publicación");
+        }
+    }
+
+    // Espera cada vez el doble antes de volver a intentar
+    private void retryOrFinish(UUID publicationId, int attempt, String error) {
+        if (attempt < MAX_ATTEMPTS) {
+            long delay = FIRST_RETRY_SECONDS << (attempt - 1);
+            executor.schedule(() -> process(publicationId, attempt + 1), delay, TimeUnit.SECONDS);
+            return;
+        }
+        logger.warn("Publication {} finished with errors after {} attempts: {}", publicationId, attempt, error);
+        finish(publicationId, error);
+    }
+
+    private void finish(UUID publicationId, String error) {
+        try {
+            publicationService.completePendingPublication(publicationId, error);
+            pending.remove(publicationId);
+            FileSystemUtils.deleteRecursively(directoryOf(publicationId));
+        } catch (Exception e) {
+            // Queda PENDING y con sus archivos, así que se retoma en el próximo arranque
+            logger.error("Could not complete publication {}: {}", publicationId, e.toString());
+        }
+    }
+
+    // Las originales ya subidas salen de la carpeta de la publicación, así un reinicio no las vuelve a subir,
+    // y quedan para sus versiones reducidas, que las borran al terminar
+    private void renderLater(List<PropertyImage> images, List<Path> files) {
+        List<PropertyImage> moved = new ArrayList<>(images.size());
+        List<Path> sources = new ArrayList<>(images.size());
+        for (int i = 0; i < images.size(); i++) {
+            Path source = null;
+            try {
+                source = Files.createTempFile(root(), RENDERING_PREFIX, ".tmp");
+                Files.move(files.get(i), source, StandardCopyOption.REPLACE_EXISTING);
+                moved.add(images.get(i));
+                sources.add(source);
+            } catch (IOException e) {
+                logger.warn("No renditions for {}: {}", files.get(i), e.toString());
+                deleteQuietly(files.get(i));
+                if (source != null) {
+                    deleteQuietly(source);
+                }
+            }
+        }
+        imageStorageService.renderLater(moved, sources);
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete spooled image {}: {}", file, e.toString());
+        }
+    }
+
+    private List<Path> spooledFiles(UUID publicationId) throws IOException {
+        Path directory = directoryOf(publicationId);
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private Path directoryOf(UUID publicationId) {
+        return root().resolve(publicationId.toString());
+    }
+
+    private Path root() {
+        return Paths.get(spoolDir);
+    }
+}
@@ -1,23 +1,81 @@
 package org.milianz.inmomarketbackend.Services;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.milianz.inmomarketbackend.Domain.Entities.*;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationClusterDTO;
 import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationDefaultDTO;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationFacetCountsDTO;
 import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationSaveDTO;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationSearchDTO;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationSummaryDTO;
 import org.milianz.inmomarketbackend.Domain.Repositories.*;
+import org.milianz.inmomarketbackend.Payload.Response.CursorPageResponse;
+import org.milianz.inmomarketbackend.Payload.Response.PublicationBatchResponse;
+import org.milianz.inmomarketbackend.Search.CatalogVersion;
+import org.milianz.inmomarketbackend.Search.FavoriteCounters;
+import org.milianz.inmomarketbackend.Search.PublicationCard;
+import org.milianz.inmomarketbackend.Search.PublicationCardStore;
+import org.milianz.inmomarketbackend.Search.PublicationChangedEvent;
+import org.milianz.inmomarketbackend.Search.PublicationClusterIndex;
+import org.milianz.inmomarketbackend.Search.PublicationColumnIndex;
+import org.milianz.inmomarketbackend.Search.PublicationFacetIndex;
+import org.milianz.inmomarketbackend.Search.PublicationGeoIndex;
+import org.milianz.inmomarketbackend.Search.PublicationJsonCache;
+import org.milianz.inmomarketbackend.Search.PublicationOrdinals;
+import org.milianz.inmomarketbackend.Search.PublicationTextIndex;
+import org.milianz.inmomarketbackend.Search.TrendingIndex;
+import org.milianz.inmomarketbackend.Search.UserFavoriteSets;
+import org.milianz.inmomarketbackend.Security.Services.UserDetailsImpl;
+import org.milianz.inmomarketbackend.Utils.CursorCodec;
+import org.milianz.inmomarketbackend.Utils.ImageValidator;
 import org.milianz.inmomarketbackend.Utils.PublicationsConstructor;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.multipart.MultipartFile;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class PublicationService {
 
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final double MAX_RADIUS_KM = 100;
+    private static final String RELEVANCE = "relevance";
+    // Vistas de listado: completa o resumida (sin descripción, horarios ni todas las imágenes)
+    private static final String VIEW_FULL = "full";
+    private static final String VIEW_SUMMARY = "summary";
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
     @Autowired
     private iPublicationRepository publicationRepository;
     @Autowired
@@ -31,138 +89,639 @@ public class PublicationService {
     @Autowired
     private iLocationRepository locationRepository;
     @Autowired
-    private CloudinaryService cloudinaryService;
+    private ImageStorageService imageStorageService;
     @Autowired
     private AvailableTimeService availableTimeService;
     @Autowired
     private iFavoriteRepository favoriteRepository;
+    @Autowired
+    private PublicationFacetIndex publicationFacetIndex;
+    @Autowired
+    private PublicationGeoIndex publicationGeoIndex;
+    @Autowired
+    private PublicationClusterIndex publicationClusterIndex;
+    @Autowired
+    private PublicationTextIndex publicationTextIndex;
+    @Autowired
+    private PublicationOrdinals publicationOrdinals;
+    @Autowired
+    private PublicationColumnIndex publicationColumnIndex;
+    @Autowired
+    private PublicationCardStore publicationCardStore;
+    @Autowired
+    private CatalogVersion catalogVersion;
+    @Autowired
+    private TrendingIndex trendingIndex;
+    @Autowired
+    private FavoriteCounters favoriteCounters;
+    @Autowired
+    private UserFavoriteSets userFavoriteSets;
+    @Autowired
+    private PublicationJsonCache publicationJsonCache;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private iPropertyImageRepository propertyImageRepository;
+    @Autowired
+    private iAvailableTimeRepository availableTimeRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @PersistenceContext
+    private EntityManager entityManager;
 
     public ResponseEntity<?> createPublication(@RequestBody PublicationSaveDTO publicationSaveDTO, String userName, MultipartFile[] files) {
         try {
             User user = userRepository.findByEmail(userName)
                     .orElseThrow(() -> new RuntimeException("User not found with email: " + userName));
+            // Antes de guardar nada, para no dejar una publicación sin imágenes
+            for (MultipartFile file : files) {
+                ImageValidator.requireImage(file);
+            }
 
-            Publication publication = new Publication();
-            publication.setUser(user);
-            publication.setPropertyType(propertyTypeService.createPropertyType(publicationSaveDTO));
-            publication.setLocation(locationService.createLocation(publicationSaveDTO));
-            publication.setPropertyAddress(publicationSaveDTO.getPropertyAddress());
-            publication.setPropertyTitle(publicationSaveDTO.getPropertyTitle());
-            publication.setLongitude(publicationSaveDTO.getLongitude());
-            publication.setLatitude(publicationSaveDTO.getLatitude());
-            publication.setPropertySize(publicationSaveDTO.getPropertySize());
-            publication.setPropertyBedrooms(publicationSaveDTO.getPropertyBedrooms());
-            publication.setPropertyFloors(publicationSaveDTO.getPropertyFloors());
-            publication.setPropertyParking(publicationSaveDTO.getPropertyParking());
-            publication.setPropertyFurnished(publicationSaveDTO.getPropertyFurnished());
-            publication.setPropertyDescription(publicationSaveDTO.getPropertyDescription());
-            publication.setPropertyPrice(publicationSaveDTO.getPropertyPrice());
-            publication.setCreatedAt(LocalDateTime.now());
-            publication.setUpdatedAt(LocalDateTime.now());
-            publication.setStatus(Publication.PublicationStatus.ACTIVE);
-
+            Publication publication = newPublication(publicationSaveDTO, user, Publication.PublicationStatus.ACTIVE);
             publicationRepository.save(publication);
 
-            List<PropertyImage> propertyImage = cloudinaryService.uploadImage(files, publication);
-            publication.setPropertyImages(propertyImage);
-
             List<AvailableTime> availableTimes = availableTimeService.createAvailableTime(publicationSaveDTO, publication);
             publication.setAvailableTimes(availableTimes);
-
             publicationRepository.save(publication);
 
+            // Las imágenes van al final y no se vuelven a guardar desde la publicación:
+            // sus versiones reducidas se escriben aparte cuando terminan de generarse
+            List<PropertyImage> propertyImage = imageStorageService.uploadImage(files, publication);
+            publication.setPropertyImages(propertyImage);
+            eventPublisher.publishEvent(new PublicationChangedEvent(publication, null));
+
             PublicationsConstructor constructor = new PublicationsConstructor();
 
             return ResponseEntity.ok(constructor.PublicationUnique(publication));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error creating publication: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Error creating publication: " + e.getMessage());
         }
     }
 
-    public List<PublicationDefaultDTO> getAllPublications() {
-        List<Publication> publications = publicationRepository.findByStatus(Publication.PublicationStatus.ACTIVE);
-        PublicationsConstructor constructor = new PublicationsConstructor();
-        return constructor.PublicationsList(publications);
+    // Primera parte de la creación asíncrona: datos y horarios quedan guardados,
+    // pero la publicación no se muestra hasta que terminen de subirse sus imágenes
+    @Transactional
+    public Publication createPendingPublication(PublicationSaveDTO publicationSaveDTO, String userName) {
+        User user = userRepository.findByEmail(userName)
+                .orElseThrow(() -> new IllegalArgumentException("User not found with email: " + userName));
+
+        Publication publication = newPublication(publicationSaveDTO, user, Publication.PublicationStatus.PENDING);
+        publicationRepository.save(publication);
+        publication.setAvailableTimes(availableTimeService.createAvailableTime(publicationSaveDTO, publication));
+        eventPublisher.publishEvent(new PublicationChangedEvent(publication, null));
+        return publication;
     }
 
-    public List<PublicationDefaultDTO> getPublicationsByDepartment(String department) {
-        List<Publication> publications = publicationRepository.findByLocation_Department(department);
-        PublicationsConstructor constructor = new PublicationsConstructor();
-        return constructor.PublicationsList(publications);
+    @Transactional
+    public void attachImages(UUID publicationId, List<PropertyImage> images) {
+        Publication publication = publicationRepository.getReferenceById(publicationId);
+        images.forEach(image -> image.setPublication(publication));
+        propertyImageRepository.saveAll(images);
     }
 
-    public List<PublicationDefaultDTO> getPublicationsByPrice(BigDecimal minPrice, BigDecimal maxPrice) {
-        List<Publication> publications = publicationRepository.findByPropertyPriceBetween(minPrice, maxPrice);
-        PublicationsConstructor constructor = new PublicationsConstructor();
-        return constructor.PublicationsList(publications);
+    // Cierra una creación asíncrona. Con error, se muestra igual si alguna imagen llegó a subirse;
+    // sin ninguna queda inactiva. El motivo queda guardado para que el dueño lo consulte.
+    @Transactional
+    public void completePendingPublication(UUID publicationId, String error) {
+        Publication publication = publicationRepository.findWithDetailsById(publicationId).orElse(null);
+        // Pudo borrarse o cambiar de estado mientras se procesaba
+        if (publication == null || publication.getStatus() != Publication.PublicationStatus.PENDING) {
+            return;
+        }
+
+        boolean hasImages = publication.getPropertyImages() != null && !publication.getPropertyImages().isEmpty();
+        publication.setStatus(error == null || hasImages
+                ? Publication.PublicationStatus.ACTIVE
+                : Publication.PublicationStatus.INACTIVE);
+        publication.setProcessingError(error);
+        publicationRepository.save(publication);
+        eventPublisher.publishEvent(new PublicationChangedEvent(publication, Publication.PublicationStatus.PENDING));
     }
 
-    public List<PublicationDefaultDTO> getPublicationsByType(String typeName) {
-        List<Publication> publications = publicationRepository.findByPropertyType_TypeName(typeName);
-        PublicationsConstructor constructor = new PublicationsConstructor();
-        return constructor.PublicationsList(publications);
+    private Publication newPublication(PublicationSaveDTO publicationSaveDTO, User user,
+                                       Publication.PublicationStatus status) {
+        Publication publication = new Publication();
+        publication.setUser(user);
+        publication.setPropertyType(propertyTypeService.createPropertyType(publicationSaveDTO));
+        publication.setLocation(locationService.createLocation(publicationSaveDTO));
+        publication.setPropertyAddress(publicationSaveDTO.getPropertyAddress());
+        publication.setPropertyTitle(publicationSaveDTO.getPropertyTitle());
+        publication.setLongitude(publicationSaveDTO.getLongitude());
+        publication.setLatitude(publicationSaveDTO.getLatitude());
+        publication.setPropertySize(publicationSaveDTO.getPropertySize());
+        publication.setPropertyBedrooms(publicationSaveDTO.getPropertyBedrooms());
+        publication.setPropertyFloors(publicationSaveDTO.getPropertyFloors());
+        publication.setPropertyParking(publicationSaveDTO.getPropertyParking());
+        publication.setPropertyFurnished(publicationSaveDTO.getPropertyFurnished());
+        publication.setPropertyDescription(publicationSaveDTO.getPropertyDescription());
+        publication.setPropertyPrice(publicationSaveDTO.getPropertyPrice());
+        publication.setCreatedAt(LocalDateTime.now());
+        publication.setUpdatedAt(LocalDateTime.now());
+        publication.setStatus(status);
+        return publication;
     }
 
-    public List<PublicationDefaultDTO> getPublicationsBySize(BigDecimal minSize, BigDecimal maxSize) {
-        List<Publication> publications = publicationRepository.findByPropertySizeBetween(minSize, maxSize);
-        PublicationsConstructor constructor = new PublicationsConstructor();
-        return constructor.PublicationsList(publications);
+    // Devuelve el JSON ya armado a partir de los bytes guardados de cada tarjeta
+    @Transactional(readOnly = true)
+    public byte[] getAllPublicationsJson(String cursor, Integer size) {
+        String sort = PublicationSpecifications.NEWEST;
+        int limit = resolveLimit(size);
+        List<Publication> rows = rowsFromDatabase(
+                KeysetSpecifications.equalTo("status", Publication.PublicationStatus.ACTIVE), sort, cursor, limit);
+        CursorPageResponse<PublicationCard> page = CursorPageResponse.of(rows, limit, this::cardOf,
+                publication -> cursorOf(sort, publication));
+        return publicationJsonCache.page(page.getItems(), page.getNextCursor());
     }
 
-    public List<PublicationDefaultDTO> getPublicationsByBedrooms(Integer bedrooms) {
-        List<Publication> publications = publicationRepository.findByPropertyBedrooms(bedrooms);
-        PublicationsConstructor constructor = new PublicationsConstructor();
-        return constructor.PublicationsList(publications);
+    // Vistas distintas de la completa; esas no pasan por la caché de JSON
+    @Transactional(readOnly = true)
+    public CursorPageResponse<?> getAllPublications(String cursor, Integer size, String view) {
+        return pageFromDatabase(KeysetSpecifications.equalTo("status", Publication.PublicationStatus.ACTIVE),
+                PublicationSpecifications.NEWEST, cursor, resolveLimit(size), view);
     }
 
-    public List<PublicationDefaultDTO> getPublicationsByFloors(Integer floors) {
-        List<Publication> publications = publicationRepository.findByPropertyFloors(floors);
-        PublicationsConstructor constructor = new PublicationsConstructor();
-        return constructor.PublicationsList(publications);
+    @Transactional(readOnly = true)
+    public CursorPageResponse<?> searchPublications(PublicationSearchDTO filters) {
+        validateRanges(filters);
+
+        Function<PublicationCard, Object> mapper = cardMapper(filters.getView());
+        int limit = resolveLimit(filters.getLimit());
+        if (hasText(filters.getQ())) {
+            return pageByRelevance(filters, limit, mapper);
+        }
+
+        String sort = PublicationSpecifications.normalizeSort(filters.getSort());
+        String[] after = filters.getCursor() != null ? decodeCursor(filters.getCursor(), sort) : null;
+        PublicationColumnIndex.Column column = columnOf(sort);
+        // Por fecha el cursor se ubica por el ordinal de su publicación; por columna basta con su valor e id
+        Integer afterOrdinal = after != null && column == null
+                ? publicationOrdinals.find(CursorCodec.uuid(after[2])) : null;
+        if (publicationFacetIndex.isReady() && (after == null || column != null || afterOrdinal != null)) {
+            RoaringBitmap matches = publicationFacetIndex.match(filters);
+            List<UUID> ids;
+            if (column == null) {
+                boolean newestFirst = sort.equals(PublicationSpecifications.NEWEST);
+                ids = publicationFacetIndex.firstIds(matches, limit + 1, newestFirst, afterOrdinal);
+            } else {
+                // Orden por precio o tamaño: se recorre la columna ordenada hasta juntar la página
+                Double afterValue = after != null ? new BigDecimal(after[1]).doubleValue() : null;
+                UUID afterId = after != null ? CursorCodec.uuid(after[2]) : null;
+                ids = publicationFacetIndex.idsOf(publicationColumnIndex.top(column, matches, limit + 1,
+                        PublicationSpecifications.isAscending(sort), afterValue, afterId));
+            }
+            List<PublicationCard> cards = cardsInOrder(ids);
+            return CursorPageResponse.of(cards, limit, mapper, card -> cursorOf(sort, card));
+        }
+
+        return pageFromDatabase(PublicationSpecifications.matches(filters), sort, filters.getCursor(), limit,
+                filters.getView());
     }
 
-    public List<PublicationDefaultDTO> getPublicationsByParking(Integer parking) {
-        List<Publication> publications = publicationRepository.findByPropertyParking(parking);
-        PublicationsConstructor constructor = new PublicationsConstructor();
-        return constructor.PublicationsList(publications);
+    @Transactional(readOnly = true)
+    public List<?> searchNearby(PublicationSearchDTO filters, double latitude, double longitude, double radiusKm) {
+        Function<PublicationCard, Object> mapper = cardMapper(filters.getView());
+        if (radiusKm <= 0 || radiusKm > MAX_RADIUS_KM) {
+            throw new IllegalArgumentException("El radio debe estar entre 0 y " + MAX_RADIUS_KM + " km");
+        }
+        if (!publicationFacetIndex.isReady()) {
+            throw new IllegalStateException("El índice de búsqueda aún no está disponible");
+        }
+
+        // Ya está acotada por radio y cantidad, así que se devuelve en una sola respuesta ordenada por distancia
+        RoaringBitmap matches = candidates(filters);
+        List<Integer> nearest = publicationGeoIndex.nearest(matches, latitude, longitude, radiusKm, resolveLimit(filters.getLimit()));
+        return cardsInOrder(publicationFacetIndex.idsOf(nearest)).stream()
+                .map(mapper)
+                .toList();
     }
 
-    public List<PublicationDefaultDTO> getPublicationsByFurnished(Boolean furnished) {
-        List<Publication> publications = publicationRepository.findByPropertyFurnished(furnished);
-        PublicationsConstructor constructor = new PublicationsConstructor();
-        return constructor.PublicationsList(publications);
+    @Transactional(readOnly = true)
+    public CursorPageResponse<?> searchViewport(PublicationSearchDTO filters,
+                                                double minLatitude, double maxLatitude,
+                                                double minLongitude, double maxLongitude) {
+        Function<PublicationCard, Object> mapper = cardMapper(filters.getView());
+        if (minLatitude > maxLatitude || minLongitude > maxLongitude) {
+            throw new IllegalArgumentException("Los límites del área no son válidos");
+        }
+        if (!publicationFacetIndex.isReady()) {
+            throw new IllegalStateException("El índice de búsqueda aún no está disponible");
+        }
+
+        int limit = resolveLimit(filters.getLimit());
+        Integer afterOrdinal = null;
+        if (filters.getCursor() != null) {
+            String[] after = decodeCursor(filters.getCursor(), PublicationSpecifications.NEWEST);
+            afterOrdinal = publicationOrdinals.find(CursorCodec.uuid(after[2]));
+            if (afterOrdinal == null) {
+                throw new IllegalArgumentException("Cursor no válido");
+            }
+        }
+
+        RoaringBitmap matches = candidates(filters);
+        RoaringBitmap inViewport = publicationGeoIndex.withinBox(matches, minLatitude, maxLatitude, minLongitude, maxLongitude);
+        List<PublicationCard> cards = cardsInOrder(publicationFacetIndex.firstIds(inViewport, limit + 1, true, afterOrdinal));
+        return CursorPageResponse.of(cards, limit, mapper,
+                card -> cursorOf(PublicationSpecifications.NEWEST, card));
+    }
+
+    public List<PublicationClusterDTO> getClusters(PublicationSearchDTO filters, int zoom, double minLatitude, double maxLatitude,
+                                                   double minLongitude, double maxLongitude) {
+        if (zoom < PublicationClusterIndex.MIN_ZOOM || zoom > PublicationClusterIndex.MAX_ZOOM) {
+            throw new IllegalArgumentException("El zoom debe estar entre " + PublicationClusterIndex.MIN_ZOOM
+                    + " y " + PublicationClusterIndex.MAX_ZOOM);
+        }
+        if (minLatitude > maxLatitude || minLongitude > maxLongitude) {
+            throw new IllegalArgumentException("Los límites del área no son válidos");
+        }
+
+        if (!hasAttributeFilters(filters)) {
+            return publicationClusterIndex.clusters(zoom, minLatitude, maxLatitude, minLongitude, maxLongitude);
+        }
+
+        if (!publicationFacetIndex.isReady()) {
+            throw new IllegalStateException("El índice de búsqueda aún no está disponible");
+        }
+        // Los grupos solo contienen publicaciones activas, por eso el estado no cuenta como filtro
+        PublicationSearchDTO attributes = copyOf(filters);
+        attributes.setStatus(null);
+        RoaringBitmap matches = candidates(attributes);
+        return publicationClusterIndex.clusters(zoom, minLatitude, maxLatitude, minLongitude, maxLongitude, matches);
     }
 
+    // Cada faceta se cuenta sin su propio filtro para que el usuario vea las alternativas disponibles.
+    // El texto libre se aplica a todas, igual que en la búsqueda, para que los conteos coincidan con los resultados
+    public PublicationFacetCountsDTO getFacetCounts(PublicationSearchDTO filters) {
+        validateRanges(filters);
+        if (!publicationFacetIndex.isReady()) {
+            throw new IllegalStateException("El índice de búsqueda aún no está disponible");
+        }
+
+        PublicationSearchDTO withoutDepartment = copyOf(filters);
+        withoutDepartment.setDepartment(null);
+        PublicationSearchDTO withoutType = copyOf(filters);
+        withoutType.setTypeName(null);
+        PublicationSearchDTO withoutBedrooms = copyOf(filters);
+        withoutBedrooms.setBedrooms(null);
+        PublicationSearchDTO withoutFurnished = copyOf(filters);
+        withoutFurnished.setFurnished(null);
+        PublicationSearchDTO withoutPrice = copyOf(filters);
+        withoutPrice.setMinPrice(null);
+        withoutPrice.setMaxPrice(null);
+
+        PublicationFacetCountsDTO counts = new PublicationFacetCountsDTO();
+        counts.setTotal(candidates(filters).getLongCardinality());
+        counts.setDepartments(publicationFacetIndex.count(PublicationFacetIndex.DEPARTMENT, candidates(withoutDepartment)));
+        counts.setTypeNames(publicationFacetIndex.count(PublicationFacetIndex.TYPE_NAME, candidates(withoutType)));
+        counts.setBedrooms(publicationFacetIndex.count(PublicationFacetIndex.BEDROOMS, candidates(withoutBedrooms)));
+        counts.setFurnished(publicationFacetIndex.count(PublicationFacetIndex.FURNISHED, candidates(withoutFurnished)));
+        counts.setPriceBuckets(publicationFacetIndex.count(PublicationFacetIndex.PRICE_BUCKET, candidates(withoutPrice)));
+        return counts;
+    }
+
+    // Escribe una publicación activa por línea (NDJSON) a medida que se leen, por bloques de tamaño fijo:
+    // imágenes y horarios se cargan en dos consultas por bloque y luego se vacía el contexto de persistencia
+    @Transactional(readOnly = true)
+    public void exportActivePublications(OutputStream output) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(PublicationDefaultDTO.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (Stream<Publication> publications = publicationRepository.streamByStatus(Publication.PublicationStatus.ACTIVE)) {
+            Iterator<Publication> iterator = publications.iterator();
+            List<Publication> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == EXPORT_CHUNK_SIZE) {
+                    writeChunk(chunk, writer, output);
+                }
+            }
+            writeChunk(chunk, writer, output);
+        }
+    }
+
+    @Transactional(readOnly = true)
     public List<PublicationDefaultDTO> getAllActivePublications() {
         List<Publication> publications = publicationRepository.findByStatus(Publication.PublicationStatus.ACTIVE);
-        PublicationsConstructor constructor = new PublicationsConstructor();
-        return constructor.PublicationsList(publications);
+        return toDTOs(publications);
     }
 
-    public List<PublicationDefaultDTO> getAllPublicationsbyUserId(UUID userId) {
-        List<Publication> publications = publicationRepository.findByUser_Id(userId);
-        PublicationsConstructor constructor = new PublicationsConstructor();
-        return constructor.PublicationsList(publications);
+    @Transactional(readOnly = true)
+    public CursorPageResponse<?> getAllPublicationsbyUserId(UUID userId, String cursor, Integer size, String view) {
+        return pageFromDatabase(KeysetSpecifications.equalTo("user.id", userId),
+                PublicationSpecifications.NEWEST, cursor, resolveLimit(size), view);
     }
 
-    public PublicationDefaultDTO getPublicationById(UUID publicationId) {
-        PublicationsConstructor constructor = new PublicationsConstructor();
-        return constructor.PublicationUnique(publicationRepository.findById(publicationId)
-                .orElseThrow(() -> new RuntimeException("Publication not found with ID: " + publicationId)));
+    // Varias publicaciones en una sola petición: las tarjetas salen de memoria y las que falten, de una única consulta
+    @Transactional(readOnly = true)
+    public PublicationBatchResponse<?> getPublicationsByIds(List<UUID> ids, String view) {
+        Function<PublicationCard, Object> mapper = cardMapper(view);
+        List<UUID> requested = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<PublicationCard> cards = cardsInOrder(requested);
+
+        Set<UUID> found = cards.stream().map(PublicationCard::getId).collect(Collectors.toSet());
+        List<UUID> missing = requested.stream().filter(id -> !found.contains(id)).toList();
+        return new PublicationBatchResponse<>(cards.stream().map(mapper).toList(), missing);
     }
 
-    public List<PublicationDefaultDTO> getLastPublications() {
-        List<Publication> publications = publicationRepository.findTop10ByOrderByCreatedAtDesc();
-        PublicationsConstructor constructor = new PublicationsConstructor();
-        return constructor.PublicationsList(publications);
+    // ETags calculadas solo con datos en memoria; null si todavía no se puede saber sin ir a la base de datos.
+    // La tarjeta se rearma con cada evento (estado, imágenes, favoritos, nombre del dueño), y con ella su versión
+    public String getPublicationETag(UUID publicationId) {
+        return publicationCardStore.find(publicationId)
+                .map(card -> publicationId + "-" + catalogVersion.cardTag(card))
+                .orElse(null);
+    }
+
+    public String getLastPublicationsETag() {
+        return "last-" + catalogVersion.publicationsTag();
+    }
+
+    public String getMostPopularPublicationsETag() {
+        return "popular-" + catalogVersion.publicationsTag() + "." + trendingIndex.version();
+    }
+
+    @Transactional(readOnly = true)
+    public byte[] getPublicationByIdJson(UUID publicationId) {
+        PublicationCard card = publicationCardStore.find(publicationId)
+                .orElseGet(() -> cardOf(publicationRepository.findWithDetailsById(publicationId)
+                        .orElseThrow(() -> new RuntimeException("Publication not found with ID: " + publicationId))));
+        // Solo cuentan las respuestas completas; las revalidaciones con 304 no llegan hasta aquí
+        trendingIndex.recordView(publicationId);
+        return publicationJsonCache.object(card);
     }
 
+    // Solo activas: las PENDING todavía no tienen imágenes y las inactivas no se muestran en listados.
+    // Pasar de PENDING a ACTIVE publica un PublicationChangedEvent, que al confirmar cambia la ETag "last-"
+    @Transactional(readOnly = true)
+    public byte[] getLastPublicationsJson() {
+        List<Publication> publications =
+                publicationRepository.findTop10ByStatusOrderByCreatedAtDesc(Publication.PublicationStatus.ACTIVE);
+        return publicationJsonCache.array(publications.stream().map(this::cardOf).toList());
+    }
+
+    // Ranking de tendencia mantenido en memoria: solo activas y sin repetidas
+    @Transactional(readOnly = true)
     public List<PublicationDefaultDTO> getTop10MostPopularPublications() {
-        List<Favorite> favorites = favoriteRepository.findTop10ByOrderByPublicationIdDesc();
-        List<Publication> publications = favorites.stream()
-                .map(favorite -> favorite.getPublication())
+        return cardsInOrder(trendingIndex.top(10)).stream()
+                .map(PublicationCard::toDTO)
                 .toList();
+    }
+
+    // Marca isFavorite en cada elemento con el usuario del token, sin consultarlo; sin sesión no marca nada
+    public void markFavorites(List<?> items) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (items.isEmpty() || authentication == null
+                || !(authentication.getPrincipal() instanceof UserDetailsImpl user)) {
+            return;
+        }
+        userFavoriteSets.mark(user.getId(), items);
+    }
+
+    private void validateRanges(PublicationSearchDTO filters) {
+        if (filters.getMinPrice() != null && filters.getMaxPrice() != null
+                && filters.getMinPrice().compareTo(filters.getMaxPrice()) > 0) {
+            throw new IllegalArgumentException("El precio mínimo no puede ser mayor al precio máximo");
+        }
+        if (filters.getMinSize() != null && filters.getMaxSize() != null
+                && filters.getMinSize().compareTo(filters.getMaxSize()) > 0) {
+            throw new IllegalArgumentException("El tamaño mínimo no puede ser mayor al tamaño máximo");
+        }
+        if (filters.getMinPricePerSquareMeter() != null && filters.getMaxPricePerSquareMeter() != null
+                && filters.getMinPricePerSquareMeter().compareTo(filters.getMaxPricePerSquareMeter()) > 0) {
+            throw new IllegalArgumentException("El precio mínimo por m² no puede ser mayor al precio máximo por m²");
+        }
+    }
+
+    private int resolveLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_SEARCH_LIMIT;
+        }
+        return Math.min(limit, MAX_SEARCH_LIMIT);
+    }
+
+    // Filtros estructurados combinados con el texto libre, si lo hay
+    private RoaringBitmap candidates(PublicationSearchDTO filters) {
+        RoaringBitmap matches = publicationFacetIndex.match(filters);
+        if (hasText(filters.getQ())) {
+            matches.and(publicationTextIndex.matching(filters.getQ()));
+        }
+        return matches;
+    }
+
+    private boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    private boolean hasAttributeFilters(PublicationSearchDTO filters) {
+        return hasText(filters.getQ()) || filters.getDepartment() != null || filters.getMunicipality() != null
+                || filters.getNeighborhood() != null || filters.getTypeName() != null
+                || filters.getMinPrice() != null || filters.getMaxPrice() != null
+                || filters.getMinSize() != null || filters.getMaxSize() != null
+                || filters.getMinPricePerSquareMeter() != null || filters.getMaxPricePerSquareMeter() != null
+                || filters.getBedrooms() != null || filters.getFloors() != null
+                || filters.getParking() != null || filters.getFurnished() != null;
+    }
+
+    private PublicationSearchDTO copyOf(PublicationSearchDTO filters) {
+        PublicationSearchDTO copy = new PublicationSearchDTO();
+        BeanUtils.copyProperties(filters, copy);
+        return copy;
+    }
+
+    // Por fecha de creación basta con el orden de los ordinales; precio y tamaño usan su columna ordenada
+    private PublicationColumnIndex.Column columnOf(String sort) {
+        return switch (sort) {
+            case "price_asc", "price_desc" -> PublicationColumnIndex.Column.PRICE;
+            case "size_asc", "size_desc" -> PublicationColumnIndex.Column.SIZE;
+            default -> null;
+        };
+    }
+
+    // Página ordenada por relevancia; el cursor guarda el puntaje y la publicación donde terminó la anterior
+    private CursorPageResponse<?> pageByRelevance(PublicationSearchDTO filters, int limit,
+                                                  Function<PublicationCard, Object> mapper) {
+        if (!publicationFacetIndex.isReady()) {
+            throw new IllegalStateException("El índice de búsqueda aún no está disponible");
+        }
+
+        PublicationTextIndex.Hit after = null;
+        if (filters.getCursor() != null) {
+            String[] parts = decodeCursor(filters.getCursor(), RELEVANCE);
+            Integer ordinal = publicationOrdinals.find(CursorCodec.uuid(parts[2]));
+            if (ordinal == null) {
+                throw new IllegalArgumentException("Cursor no válido");
+            }
+            after = new PublicationTextIndex.Hit(ordinal, parseScore(parts[1]));
+        }
+
+        RoaringBitmap matches = publicationFacetIndex.match(filters);
+        List<PublicationTextIndex.Hit> hits = publicationTextIndex.search(filters.getQ(), matches, limit + 1, after);
+        Map<UUID, Double> scores = new HashMap<>();
+        hits.forEach(hit -> scores.put(publicationOrdinals.idOf(hit.getOrdinal()), hit.getScore()));
+
+        List<PublicationCard> cards = cardsInOrder(hits.stream()
+                .map(hit -> publicationOrdinals.idOf(hit.getOrdinal()))
+                .toList());
+        return CursorPageResponse.of(cards, limit, mapper, card -> CursorCodec.encode(
+                RELEVANCE, Double.toString(scores.get(card.getId())), card.getId().toString()));
+    }
+
+    // Paginación por clave en la base de datos: sin offset ni count, cada página cuesta lo mismo
+    private CursorPageResponse<?> pageFromDatabase(Specification<Publication> spec, String sort, String cursor,
+                                                   int limit, String view) {
+        if (isSummary(view)) {
+            return summaryPageFromDatabase(spec, sort, cursor, limit);
+        }
+        List<Publication> publications = rowsFromDatabase(spec, sort, cursor, limit);
+        return CursorPageResponse.of(publications, limit, this::toDTO, publication -> cursorOf(sort, publication));
+    }
+
+    // Solo se seleccionan las columnas del resumen y la portada; ni la descripción ni las colecciones salen de la base
+    private CursorPageResponse<PublicationSummaryDTO> summaryPageFromDatabase(Specification<Publication> spec, String sort,
+                                                                              String cursor, int limit) {
+        List<PublicationSummaryDTO> summaries = publicationRepository.findSummaries(
+                afterCursor(spec, sort, cursor), PublicationSpecifications.sortOf(sort), limit + 1);
+        if (!summaries.isEmpty()) {
+            Map<UUID, Object[]> covers = new HashMap<>();
+            for (Object[] row : propertyImageRepository.findCoverImages(
+                    summaries.stream().map(PublicationSummaryDTO::getId).toList())) {
+                covers.putIfAbsent((UUID) row[0], row);
+            }
+            summaries.forEach(summary -> {
+                Object[] cover = covers.get(summary.getId());
+                if (cover != null) {
+                    summary.setCoverImageUrl((String) cover[1]);
+                    summary.setCoverThumbnailUrl((String) cover[2]);
+                }
+                summary.setFavoriteCount(favoriteCounters.count(summary.getId()));
+            });
+        }
+        return CursorPageResponse.of(summaries, limit, Function.identity(), summary -> CursorCodec.encode(sort,
+                PublicationSpecifications.cursorValue(sort, summary.getCreatedAt(), summary.getPropertyPrice(),
+                        summary.getPropertySize()),
+                summary.getId().toString()));
+    }
+
+    // Hasta limit + 1 filas después del cursor, para saber si hay otra página
+    private List<Publication> rowsFromDatabase(Specification<Publication> spec, String sort, String cursor, int limit) {
+        Specification<Publication> query = afterCursor(spec, sort, cursor);
+        Sort order = PublicationSpecifications.sortOf(sort);
+        return publicationRepository.findBy(query, q -> q
+                .project("location", "propertyType", "user")
+                .sortBy(order)
+                .limit(limit + 1)
+                .all());
+    }
+
+    private Specification<Publication> afterCursor(Specification<Publication> spec, String sort, String cursor) {
+        if (cursor == null) {
+            return spec;
+        }
+        String[] after = decodeCursor(cursor, sort);
+        return spec.and(PublicationSpecifications.after(sort, after[1], CursorCodec.uuid(after[2])));
+    }
+
+    private boolean isSummary(String view) {
+        if (view == null || view.equalsIgnoreCase(VIEW_FULL)) {
+            return false;
+        }
+        if (view.equalsIgnoreCase(VIEW_SUMMARY)) {
+            return true;
+        }
+        throw new IllegalArgumentException("Vista no válida: " + view);
+    }
+
+    private Function<PublicationCard, Object> cardMapper(String view) {
+        return isSummary(view) ? PublicationCard::toSummaryDTO : PublicationCard::toDTO;
+    }
+
+    private String cursorOf(String sort, Publication publication) {
+        return CursorCodec.encode(sort, PublicationSpecifications.cursorValue(sort, publication), publication.getId().toString());
+    }
+
+    private String cursorOf(String sort, PublicationCard card) {
+        return CursorCodec.encode(sort, PublicationSpecifications.cursorValue(sort, card.getCreatedAt(),
+                card.getPropertyPrice(), card.getPropertySize()), card.getId().toString());
+    }
+
+    // Un cursor solo vale para el orden con el que se generó
+    private String[] decodeCursor(String cursor, String sort) {
+        String[] parts = CursorCodec.decode(cursor, 3);
+        if (!parts[0].equals(sort)) {
+            throw new IllegalArgumentException("El cursor no corresponde al orden solicitado");
+        }
+        return parts;
+    }
+
+    private double parseScore(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor no válido");
+        }
+    }
+
+    private void writeChunk(List<Publication> chunk, ObjectWriter writer, OutputStream output) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<UUID> ids = chunk.stream().map(Publication::getId).toList();
+        Map<UUID, List<PropertyImage>> images = propertyImageRepository.findByPublication_IdIn(ids).stream()
+                .collect(Collectors.groupingBy(image -> image.getPublication().getId()));
+        Map<UUID, List<AvailableTime>> times = availableTimeRepository.findByPublication_IdIn(ids).stream()
+                .collect(Collectors.groupingBy(time -> time.getPublication().getId()));
+
         PublicationsConstructor constructor = new PublicationsConstructor();
-        return constructor.PublicationsList(publications);
+        for (Publication publication : chunk) {
+            PublicationDefaultDTO dto = constructor.PublicationWithDetails(publication,
+                    images.getOrDefault(publication.getId(), List.of()),
+                    times.getOrDefault(publication.getId(), List.of()));
+            dto.setFavoriteCount(favoriteCounters.count(publication.getId()));
+            writer.writeValue(output, dto);
+            output.write('\n');
+        }
+        output.flush();
+
+        chunk.clear();
+        entityManager.clear();
+    }
+
+    private PublicationDefaultDTO toDTO(Publication publication) {
+        return cardOf(publication).toDTO();
+    }
+
+    // La tarjeta guardada evita recorrer imágenes y horarios; sin ella se arma desde la entidad
+    private PublicationCard cardOf(Publication publication) {
+        return publicationCardStore.find(publication.getId())
+                .orElseGet(() -> PublicationCard.of(publication, favoriteCounters.count(publication.getId())));
+    }
+
+    private List<PublicationDefaultDTO> toDTOs(List<Publication> publications) {
+        return publications.stream().map(this::toDTO).toList();
+    }
+
+    // Tarjetas en el orden de los ids; las que aún no estén en memoria se arman desde la base de datos
+    private List<PublicationCard> cardsInOrder(List<UUID> ids) {
+        Map<UUID, PublicationCard> cards = publicationCardStore.findAll(ids);
+        if (cards.size() < ids.size()) {
+            List<UUID> missing = ids.stream().filter(id -> !cards.containsKey(id)).toList();
+            findInOrder(missing).forEach(publication -> cards.put(publication.getId(),
+                    PublicationCard.of(publication, favoriteCounters.count(publication.getId()))));
+        }
+        return ids.stream()
+                .map(cards::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private List<Publication> findInOrder(List<UUID> ids) {
+        Map<UUID, Publication> byId = publicationRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(Publication::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
-}
\ No newline at end of file
+}
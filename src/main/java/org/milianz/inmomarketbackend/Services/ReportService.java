@@ -6,20 +6,26 @@ import org.milianz.inmomarketbackend.Domain.Entities.Report;
 import org.milianz.inmomarketbackend.Domain.Entities.User;
 import org.milianz.inmomarketbackend.Domain.Entities.DTOs.ReportDefaultDTO;
 import org.milianz.inmomarketbackend.Domain.Entities.DTOs.ReportSaveDTO;
+import org.milianz.inmomarketbackend.Domain.Repositories.KeysetSpecifications;
 import org.milianz.inmomarketbackend.Domain.Repositories.iPublicationRepository;
 import org.milianz.inmomarketbackend.Domain.Repositories.iReportRepository;
 import org.milianz.inmomarketbackend.Domain.Repositories.iUserRepository;
+import org.milianz.inmomarketbackend.Payload.Response.CursorPageResponse;
 import org.milianz.inmomarketbackend.Payload.Response.MessageResponse;
+import org.milianz.inmomarketbackend.Search.PublicationChangedEvent;
+import org.milianz.inmomarketbackend.Utils.CursorCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -28,10 +34,12 @@ public class ReportService {
 
     private static final Logger logger = LoggerFactory.getLogger(ReportService.class);
     private static final int REPORTS_THRESHOLD = 5;
+    private static final int MAX_PAGE_SIZE = 100;
 
     private final iReportRepository reportRepository;
     private final iPublicationRepository publicationRepository;
     private final iUserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public ResponseEntity<?> createReport(ReportSaveDTO reportSaveDTO) {
@@ -90,6 +98,7 @@ public class ReportService {
             // Cambiar estado de la publicación
             publication.setStatus(Publication.PublicationStatus.INACTIVE);
             publicationRepository.save(publication);
+            eventPublisher.publishEvent(new PublicationChangedEvent(publication, Publication.PublicationStatus.ACTIVE));
 
             // Marcar reportes como revisados
             reportRepository.findByPublicationIdAndStatus(
@@ -104,20 +113,41 @@ public class ReportService {
         }
     }
 
-    public Page<ReportDefaultDTO> getMyReports(Pageable pageable) {
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ReportDefaultDTO> getMyReports(String cursor, int size) {
         User currentUser = getCurrentUser();
-        Page<Report> reports = reportRepository.findByReporterId(currentUser.getId(), pageable);
-        return reports.map(this::convertToDTO);
+        return pageOf(KeysetSpecifications.equalTo("reporter.id", currentUser.getId()), cursor, size);
     }
 
-    public Page<ReportDefaultDTO> getAllReports(Pageable pageable) {
-        Page<Report> reports = reportRepository.findByStatus(Report.ReportStatus.PENDING, pageable);
-        return reports.map(this::convertToDTO);
+    // Para admin: todos los reportes pendientes
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ReportDefaultDTO> getAllReports(String cursor, int size) {
+        return pageOf(KeysetSpecifications.equalTo("status", Report.ReportStatus.PENDING), cursor, size);
     }
 
-    public Page<ReportDefaultDTO> getReportsByPublication(UUID publicationId, Pageable pageable) {
-        Page<Report> reports = reportRepository.findByPublicationId(publicationId, pageable);
-        return reports.map(this::convertToDTO);
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ReportDefaultDTO> getReportsByPublication(UUID publicationId, String cursor, int size) {
+        return pageOf(KeysetSpecifications.equalTo("publication.id", publicationId), cursor, size);
+    }
+
+    // Más recientes primero, continuando desde la fecha e id del último reporte entregado
+    private CursorPageResponse<ReportDefaultDTO> pageOf(Specification<Report> spec, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        Specification<Report> query = spec;
+        if (cursor != null) {
+            String[] after = CursorCodec.decode(cursor, 2);
+            query = query.and(KeysetSpecifications.after("reportDate", CursorCodec.timestamp(after[0]),
+                    "id", CursorCodec.uuid(after[1]), false));
+        }
+
+        List<Report> reports = reportRepository.findBy(query, q -> q
+                .project("publication", "reporter")
+                .sortBy(Sort.by(Sort.Direction.DESC, "reportDate", "id"))
+                .limit(pageSize + 1)
+                .all());
+
+        return CursorPageResponse.of(reports, pageSize, this::convertToDTO,
+                report -> CursorCodec.encode(report.getReportDate().toString(), report.getId().toString()));
     }
 
     @Transactional
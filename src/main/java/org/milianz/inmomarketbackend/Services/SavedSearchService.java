@@ -0,0 +1,188 @@
+package org.milianz.inmomarketbackend.Services;
+
+import lombok.RequiredArgsConstructor;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.SavedSearchDefaultDTO;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.SavedSearchMatchDTO;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.SavedSearchSaveDTO;
+import org.milianz.inmomarketbackend.Domain.Entities.SavedSearch;
+import org.milianz.inmomarketbackend.Domain.Entities.SavedSearchMatch;
+import org.milianz.inmomarketbackend.Domain.Entities.User;
+import org.milianz.inmomarketbackend.Domain.Repositories.KeysetSpecifications;
+import org.milianz.inmomarketbackend.Domain.Repositories.iSavedSearchMatchRepository;
+import org.milianz.inmomarketbackend.Domain.Repositories.iSavedSearchRepository;
+import org.milianz.inmomarketbackend.Domain.Repositories.iUserRepository;
+import org.milianz.inmomarketbackend.Payload.Response.CursorPageResponse;
+import org.milianz.inmomarketbackend.Payload.Response.MessageResponse;
+import org.milianz.inmomarketbackend.Search.SavedSearchPercolator;
+import org.milianz.inmomarketbackend.Utils.CursorCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class SavedSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SavedSearchService.class);
+    private static final int MAX_SAVED_SEARCHES = 50;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final iSavedSearchRepository savedSearchRepository;
+    private final iSavedSearchMatchRepository savedSearchMatchRepository;
+    private final iUserRepository userRepository;
+    private final SavedSearchPercolator savedSearchPercolator;
+
+    @Transactional
+    public ResponseEntity<?> createSavedSearch(SavedSearchSaveDTO savedSearchSaveDTO) {
+        try {
+            User currentUser = getCurrentUser();
+
+            if (savedSearchRepository.countByUserId(currentUser.getId()) >= MAX_SAVED_SEARCHES) {
+                return ResponseEntity.badRequest()
+                        .body(new MessageResponse("Has alcanzado el máximo de " + MAX_SAVED_SEARCHES + " búsquedas guardadas"));
+            }
+            if (savedSearchSaveDTO.getMinPrice() != null && savedSearchSaveDTO.getMaxPrice() != null
+                    && savedSearchSaveDTO.getMinPrice().compareTo(savedSearchSaveDTO.getMaxPrice()) > 0) {
+                return ResponseEntity.badRequest()
+                        .body(new MessageResponse("El precio mínimo no puede ser mayor al precio máximo"));
+            }
+            if (savedSearchSaveDTO.getMinSize() != null && savedSearchSaveDTO.getMaxSize() != null
+                    && savedSearchSaveDTO.getMinSize().compareTo(savedSearchSaveDTO.getMaxSize()) > 0) {
+                return ResponseEntity.badRequest()
+                        .body(new MessageResponse("El tamaño mínimo no puede ser mayor al tamaño máximo"));
+            }
+
+            SavedSearch savedSearch = SavedSearch.builder()
+                    .user(currentUser)
+                    .name(savedSearchSaveDTO.getName())
+                    .department(savedSearchSaveDTO.getDepartment())
+                    .municipality(savedSearchSaveDTO.getMunicipality())
+                    .neighborhood(savedSearchSaveDTO.getNeighborhood())
+                    .typeName(savedSearchSaveDTO.getTypeName())
+                    .minPrice(savedSearchSaveDTO.getMinPrice())
+                    .maxPrice(savedSearchSaveDTO.getMaxPrice())
+                    .minSize(savedSearchSaveDTO.getMinSize())
+                    .maxSize(savedSearchSaveDTO.getMaxSize())
+                    .bedrooms(savedSearchSaveDTO.getBedrooms())
+                    .floors(savedSearchSaveDTO.getFloors())
+                    .parking(savedSearchSaveDTO.getParking())
+                    .furnished(savedSearchSaveDTO.getFurnished())
+                    .build();
+
+            savedSearch = savedSearchRepository.save(savedSearch);
+            savedSearchPercolator.register(savedSearch);
+
+            logger.info("User {} saved search {}", currentUser.getEmail(), savedSearch.getId());
+
+            return ResponseEntity.ok(convertToDTO(savedSearch));
+
+        } catch (Exception e) {
+            logger.error("Error saving search: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error al guardar la búsqueda: " + e.getMessage()));
+        }
+    }
+
+    public List<SavedSearchDefaultDTO> getMySavedSearches() {
+        User currentUser = getCurrentUser();
+        return savedSearchRepository.findByUserIdOrderByCreatedAtDesc(currentUser.getId()).stream()
+                .map(this::convertToDTO)
+                .toList();
+    }
+
+    @Transactional
+    public ResponseEntity<?> deleteSavedSearch(UUID savedSearchId) {
+        try {
+            User currentUser = getCurrentUser();
+
+            SavedSearch savedSearch = savedSearchRepository.findById(savedSearchId)
+                    .orElseThrow(() -> new RuntimeException("Búsqueda guardada no encontrada"));
+
+            if (!savedSearch.getUser().getId().equals(currentUser.getId())) {
+                return ResponseEntity.status(403)
+                        .body(new MessageResponse("No puedes eliminar una búsqueda de otro usuario"));
+            }
+
+            savedSearchPercolator.unregister(savedSearchId);
+            savedSearchMatchRepository.deleteBySavedSearchId(savedSearchId);
+            savedSearchRepository.delete(savedSearch);
+
+            return ResponseEntity.ok(new MessageResponse("Búsqueda guardada eliminada"));
+
+        } catch (Exception e) {
+            logger.error("Error deleting saved search: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error al eliminar la búsqueda: " + e.getMessage()));
+        }
+    }
+
+    // Coincidencias más recientes primero; publicación y búsqueda se traen en la misma consulta
+    @Transactional(readOnly = true)
+    public CursorPageResponse<SavedSearchMatchDTO> getMyInbox(String cursor, int size) {
+        User currentUser = getCurrentUser();
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        Specification<SavedSearchMatch> spec = KeysetSpecifications.equalTo("user.id", currentUser.getId());
+        if (cursor != null) {
+            String[] after = CursorCodec.decode(cursor, 2);
+            spec = spec.and(KeysetSpecifications.after("matchedAt", CursorCodec.timestamp(after[0]),
+                    "id", CursorCodec.uuid(after[1]), false));
+        }
+
+        List<SavedSearchMatch> matches = savedSearchMatchRepository.findBy(spec, query -> query
+                .project("publication", "savedSearch")
+                .sortBy(Sort.by(Sort.Direction.DESC, "matchedAt", "id"))
+                .limit(pageSize + 1)
+                .all());
+
+        return CursorPageResponse.of(matches, pageSize, this::convertToMatchDTO,
+                match -> CursorCodec.encode(match.getMatchedAt().toString(), match.getId().toString()));
+    }
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String email = authentication.getName();
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+    }
+
+    private SavedSearchDefaultDTO convertToDTO(SavedSearch savedSearch) {
+        return new SavedSearchDefaultDTO(
+                savedSearch.getId(),
+                savedSearch.getName(),
+                savedSearch.getDepartment(),
+                savedSearch.getMunicipality(),
+                savedSearch.getNeighborhood(),
+                savedSearch.getTypeName(),
+                savedSearch.getMinPrice(),
+                savedSearch.getMaxPrice(),
+                savedSearch.getMinSize(),
+                savedSearch.getMaxSize(),
+                savedSearch.getBedrooms(),
+                savedSearch.getFloors(),
+                savedSearch.getParking(),
+                savedSearch.getFurnished(),
+                savedSearch.getCreatedAt()
+        );
+    }
+
+    private SavedSearchMatchDTO convertToMatchDTO(SavedSearchMatch match) {
+        return new SavedSearchMatchDTO(
+                match.getId(),
+                match.getSavedSearch().getId(),
+                match.getSavedSearch().getName(),
+                match.getPublication().getId(),
+                match.getPublication().getPropertyTitle(),
+                match.getPublication().getPropertyPrice(),
+                match.getMatchedAt()
+        );
+    }
+}
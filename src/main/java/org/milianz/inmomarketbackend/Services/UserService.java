@@ -5,6 +5,8 @@ import org.milianz.inmomarketbackend.Domain.Entities.User;
 import org.milianz.inmomarketbackend.Domain.Repositories.iUserRepository;
 import org.milianz.inmomarketbackend.Payload.Request.UpdateProfileRequest;
 import org.milianz.inmomarketbackend.Payload.Response.UserProfileResponse;
+import org.milianz.inmomarketbackend.Search.PublicationCardStore;
+import org.milianz.inmomarketbackend.Utils.ImageValidator;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -13,6 +15,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -20,7 +23,8 @@ import java.util.Optional;
 public class UserService {
 
     private final iUserRepository userRepository;
-    private final CloudinaryService cloudinaryService;
+    private final ImageStorageService imageStorageService;
+    private final PublicationCardStore publicationCardStore;
 
     public UserProfileResponse getCurrentUserProfile() {
         User currentUser = getCurrentUser();
@@ -40,6 +44,9 @@ public class UserService {
         }
 
 
+        if (!Objects.equals(currentUser.getName(), updateProfileRequest.getName())) {
+            publicationCardStore.renameOwner(currentUser.getId(), updateProfileRequest.getName());
+        }
         currentUser.setName(updateProfileRequest.getName());
         currentUser.setEmail(updateProfileRequest.getEmail());
         currentUser.setPhoneNumber(updateProfileRequest.getPhoneNumber());
@@ -48,21 +55,21 @@ public class UserService {
         if (updateProfileRequest.getRemoveProfilePicture() != null && updateProfileRequest.getRemoveProfilePicture()) {
             // Eliminar foto existente
             if (currentUser.getProfilePicture() != null && !currentUser.getProfilePicture().isEmpty()) {
-                cloudinaryService.deleteImage(currentUser.getProfilePicture());
+                imageStorageService.deleteImage(currentUser.getProfilePicture());
                 currentUser.setProfilePicture(null);
             }
         } else if (updateProfileRequest.getProfilePicture() != null && !updateProfileRequest.getProfilePicture().isEmpty()) {
             // Subir nueva foto
+            // Validar archivo antes de tocar la foto actual
+            validateProfilePicture(updateProfileRequest.getProfilePicture());
+
             // Eliminar foto anterior si existe
             if (currentUser.getProfilePicture() != null && !currentUser.getProfilePicture().isEmpty()) {
-                cloudinaryService.deleteImage(currentUser.getProfilePicture());
+                imageStorageService.deleteImage(currentUser.getProfilePicture());
             }
 
-            // Validar archivo
-            validateProfilePicture(updateProfileRequest.getProfilePicture());
-
             // Subir nueva imagen
-            String imageUrl = cloudinaryService.uploadImage(updateProfileRequest.getProfilePicture(), "profile_pictures");
+            String imageUrl = imageStorageService.uploadImage(updateProfileRequest.getProfilePicture(), "profile_pictures");
             currentUser.setProfilePicture(imageUrl);
         }
 
@@ -70,22 +77,19 @@ public class UserService {
         return mapToUserProfileResponse(updatedUser);
     }
 
-    private void validateProfilePicture(MultipartFile file) {
+    private void validateProfilePicture(MultipartFile file) throws IOException {
         // Validar que el archivo no esté vacío
         if (file.isEmpty()) {
             throw new RuntimeException("El archivo no puede estar vacío");
         }
 
-        // Validar que sea una imagen
-        String contentType = file.getContentType();
-        if (contentType == null || !contentType.startsWith("image/")) {
-            throw new RuntimeException("El archivo debe ser una imagen");
-        }
-
         // Validar tamaño (max 5MB)
         if (file.getSize() > 5 * 1024 * 1024) {
             throw new RuntimeException("El archivo no puede ser mayor a 5MB");
         }
+
+        // Validar que sea una imagen por su contenido; solo se leen los primeros bytes
+        ImageValidator.requireImage(file);
     }
 
     private User getCurrentUser() {
@@ -0,0 +1,15 @@
+package org.milianz.inmomarketbackend.Storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Dónde quedan guardados los archivos de imagen. Se elige con inmo.storage.type: cloudinary (por defecto) o local
+public interface BlobStorage {
+
+    // Guarda una copia del archivo y devuelve la URL con la que se sirve.
+    // folder agrupa los archivos donde el almacenamiento lo permita; puede ser null
+    String store(Path file, String folder) throws IOException;
+
+    // No lanza excepciones: un borrado fallido no debe cortar el flujo de quien lo pide
+    void delete(String url);
+}
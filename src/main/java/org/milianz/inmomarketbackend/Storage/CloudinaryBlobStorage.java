@@ -1,59 +1,39 @@
-package org.milianz.inmomarketbackend.Services;
+package org.milianz.inmomarketbackend.Storage;
 
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
-import org.milianz.inmomarketbackend.Domain.Entities.PropertyImage;
-import org.milianz.inmomarketbackend.Domain.Entities.Publication;
-import org.milianz.inmomarketbackend.Domain.Repositories.iPropertyImageRepository;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.file.Path;
 import java.util.Map;
 
-@Service
-public class CloudinaryService {
-
-    @Autowired
-    private Cloudinary cloudinary;
-    @Autowired
-    private iPropertyImageRepository propertyImageRepository;
-
-    public List<PropertyImage> uploadImage(MultipartFile[] files, Publication publication) throws IOException {
-        List<PropertyImage> propertyImages = new ArrayList<>();
-        for (MultipartFile file : files) {
-            Map uploadResult = cloudinary.uploader().upload(file.getBytes(), ObjectUtils.emptyMap());
-
-            String imageUrl = uploadResult.get("url").toString();
-
-            PropertyImage propertyImage = new PropertyImage();
-            propertyImage.setImageUrl(imageUrl);
-            propertyImage.setPublication(publication);
-            propertyImage.setIsMain(false);
-            propertyImage = propertyImageRepository.save(propertyImage);
-        }
-
-        return propertyImages;
-    }
-
-    // Método sobrecargado para subir imágenes de perfil
-    public String uploadImage(MultipartFile file, String folder) throws IOException {
-        Map<String, Object> uploadParams = ObjectUtils.asMap(
-                "folder", folder,
-                "resource_type", "image"
-        );
-
-        Map uploadResult = cloudinary.uploader().upload(file.getBytes(), uploadParams);
+@Component
+@ConditionalOnProperty(name = "inmo.storage.type", havingValue = "cloudinary", matchIfMissing = true)
+@RequiredArgsConstructor
+public class CloudinaryBlobStorage implements BlobStorage {
+
+    private final Cloudinary cloudinary;
+
+    // Con un archivo, el cliente envía el contenido por partes en lugar de tenerlo entero en memoria
+    @Override
+    public String store(Path file, String folder) throws IOException {
+        Map<String, Object> uploadParams = folder == null
+                ? ObjectUtils.emptyMap()
+                : ObjectUtils.asMap(
+                        "folder", folder,
+                        "resource_type", "image"
+                );
+        Map uploadResult = cloudinary.uploader().upload(file.toFile(), uploadParams);
         return uploadResult.get("url").toString();
     }
 
-    // Método para eliminar imágenes
-    public void deleteImage(String imageUrl) throws IOException {
+    @Override
+    public void delete(String url) {
         try {
             // Extraer el public_id de la URL de Cloudinary
-            String publicId = extractPublicIdFromUrl(imageUrl);
+            String publicId = extractPublicIdFromUrl(url);
 
             if (publicId != null && !publicId.isEmpty()) {
                 cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
@@ -104,4 +84,4 @@ public class CloudinaryService {
             return null;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,207 @@
+package org.milianz.inmomarketbackend.Storage;
+
+import org.milianz.inmomarketbackend.Domain.Repositories.iPropertyImageRepository;
+import org.milianz.inmomarketbackend.Domain.Repositories.iUserRepository;
+import org.milianz.inmomarketbackend.Utils.ImageValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+// Archivos en el disco del nodo, direccionados por contenido: el nombre es el SHA-256 del archivo más su extensión.
+// La misma imagen subida dos veces ocupa un solo archivo, y como el contenido de un nombre nunca cambia
+// se puede servir con caché de larga duración. Se reparten en carpetas por los primeros caracteres del hash
+// (ab/cd/abcd….jpg) para no juntar cientos de miles de archivos en un mismo directorio.
+// Como un archivo puede estar detrás de varias imágenes, borrar solo lo anota: un barrido periódico elimina
+// los anotados que ya no aparecen en ninguna imagen ni foto de perfil.
+@Component
+@ConditionalOnProperty(name = "inmo.storage.type", havingValue = "local")
+public class LocalBlobStorage implements BlobStorage {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalBlobStorage.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Pattern NAME = Pattern.compile("[0-9a-f]{64}\\.(jpg|png|gif|webp)");
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "jpeg", "jpg",
+            "png", "png",
+            "gif", "gif",
+            "webp", "webp"
+    );
+    private static final Map<String, MediaType> MEDIA_TYPES = Map.of(
+            "jpg", MediaType.IMAGE_JPEG,
+            "png", MediaType.IMAGE_PNG,
+            "gif", MediaType.IMAGE_GIF,
+            "webp", MediaType.parseMediaType("image/webp")
+    );
+
+    private final Path root;
+    private final String baseUrl;
+    private final long graceMillis;
+    private final iPropertyImageRepository propertyImageRepository;
+    private final iUserRepository userRepository;
+
+    // Nombres pedidos para borrar que el barrido todavía no resolvió
+    private final Set<String> pendingDeletes = ConcurrentHashMap.newKeySet();
+    // Ordena el alta o el retoque de un archivo con su borrado
+    private final Object files = new Object();
+
+    public LocalBlobStorage(@Value("${inmo.storage.local.root}") String root,
+                            @Value("${inmo.storage.local.base-url:/api/images}") String baseUrl,
+                            @Value("${inmo.storage.local.delete-grace-seconds:600}") long graceSeconds,
+                            iPropertyImageRepository propertyImageRepository,
+                            iUserRepository userRepository) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.graceMillis = graceSeconds * 1000;
+        this.propertyImageRepository = propertyImageRepository;
+        this.userRepository = userRepository;
+        Files.createDirectories(this.root);
+        logger.info("Local blob storage at {}, served from {}", this.root, this.baseUrl);
+    }
+
+    // La carpeta no se usa: el hash ya identifica el archivo
+    @Override
+    public String store(Path file, String folder) throws IOException {
+        MessageDigest sha256 = sha256();
+        byte[] header;
+        try (InputStream input = Files.newInputStream(file)) {
+            header = input.readNBytes(ImageValidator.HEADER_LENGTH);
+            sha256.update(header);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                sha256.update(buffer, 0, read);
+            }
+        }
+        String format = ImageValidator.formatOf(header);
+        if (format == null) {
+            throw new IllegalArgumentException("El archivo no es una imagen JPEG, PNG, GIF o WebP");
+        }
+
+        String name = HexFormat.of().formatHex(sha256.digest()) + "." + EXTENSIONS.get(format);
+        Path target = pathOf(name);
+        // Un archivo que ya existe se retoca: quien lo sube todavía no guardó su fila y el barrido debe esperarlo
+        synchronized (files) {
+            if (Files.exists(target)) {
+                Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+                return baseUrl + "/" + name;
+            }
+        }
+        // Se copia a un temporal en la misma carpeta y se renombra: nadie llega a ver un archivo a medias
+        Files.createDirectories(target.getParent());
+        Path incoming = Files.createTempFile(target.getParent(), "incoming-", ".tmp");
+        try {
+            Files.copy(file, incoming, StandardCopyOption.REPLACE_EXISTING);
+            synchronized (files) {
+                Files.move(incoming, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (FileAlreadyExistsException e) {
+            // Otra subida del mismo contenido terminó primero; el archivo es idéntico
+        } finally {
+            Files.deleteIfExists(incoming);
+        }
+        return baseUrl + "/" + name;
+    }
+
+    // Otras imágenes pueden compartir el archivo, así que se anota y lo resuelve el barrido
+    @Override
+    public void delete(String url) {
+        String name = nameOf(url);
+        if (name != null) {
+            pendingDeletes.add(name);
+        }
+    }
+
+    // Borra los anotados que nadie referencia y que no se subieron de nuevo durante el período de gracia.
+    // Los que siguen en uso se olvidan; los recientes quedan para la próxima pasada.
+    @Scheduled(fixedDelay = 60000)
+    public void sweep() {
+        if (pendingDeletes.isEmpty()) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - graceMillis;
+        for (String name : List.copyOf(pendingDeletes)) {
+            Path file = pathOf(name);
+            try {
+                if (!Files.exists(file) || isReferenced(baseUrl + "/" + name)) {
+                    pendingDeletes.remove(name);
+                } else if (deleteIfOlderThan(file, cutoff)) {
+                    pendingDeletes.remove(name);
+                    logger.debug("Local blob {} deleted", name);
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not sweep local blob {}: {}", name, e.toString());
+            }
+        }
+    }
+
+    // Solo nombres con la forma hash.extensión; cualquier otra cosa no llega a tocar el disco
+    public Optional<Path> resolve(String name) {
+        if (name == null || !NAME.matcher(name).matches()) {
+            return Optional.empty();
+        }
+        Path file = pathOf(name);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    public MediaType mediaTypeOf(String name) {
+        return MEDIA_TYPES.getOrDefault(name.substring(name.lastIndexOf('.') + 1), MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    private boolean isReferenced(String url) {
+        return propertyImageRepository.existsByImageUrlOrCardUrlOrThumbnailUrl(url, url, url)
+                || userRepository.existsByProfilePicture(url);
+    }
+
+    private boolean deleteIfOlderThan(Path file, long cutoff) throws IOException {
+        synchronized (files) {
+            if (Files.getLastModifiedTime(file).toMillis() > cutoff) {
+                return false;
+            }
+            Files.deleteIfExists(file);
+            return true;
+        }
+    }
+
+    // Solo las URLs de este almacenamiento; las de Cloudinary que queden de antes no se tocan
+    private String nameOf(String url) {
+        if (url == null || !url.startsWith(baseUrl + "/")) {
+            return null;
+        }
+        String name = url.substring(baseUrl.length() + 1);
+        return NAME.matcher(name).matches() ? name : null;
+    }
+
+    private Path pathOf(String name) {
+        return root.resolve(name.substring(0, 2)).resolve(name.substring(2, 4)).resolve(name);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
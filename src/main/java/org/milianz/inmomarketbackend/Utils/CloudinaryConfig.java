@@ -3,10 +3,13 @@ package org.milianz.inmomarketbackend.Utils;
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+// Solo con inmo.storage.type=cloudinary (o sin definir); con almacenamiento local no hacen falta las credenciales
 @Configuration
+@ConditionalOnProperty(name = "inmo.storage.type", havingValue = "cloudinary", matchIfMissing = true)
 public class CloudinaryConfig {
 
     @Value("${CLOUDINARY_CLOUD_NAME}")
@@ -26,4 +29,4 @@ public class CloudinaryConfig {
                 "api_secret", apiSecret
         ));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package org.milianz.inmomarketbackend.Utils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ImageUploadConfig {
+
+    // Hilos compartidos por todas las subidas: su cantidad es el límite global de subidas simultáneas
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService imageUploadExecutor(@Value("${inmo.upload.max-concurrent:8}") int maxConcurrent) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(maxConcurrent * 25), new CustomizableThreadFactory("image-upload-"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
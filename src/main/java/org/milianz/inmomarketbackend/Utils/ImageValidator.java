@@ -0,0 +1,61 @@
+package org.milianz.inmomarketbackend.Utils;
+
+import org.springframework.web.multipart.MultipartFile;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Reconoce el formato por los primeros bytes del archivo, sin cargarlo completo ni confiar en el Content-Type
+public final class ImageValidator {
+
+    // Lo necesario para distinguir todos los formatos aceptados
+    public static final int HEADER_LENGTH = 12;
+
+    private ImageValidator() {
+    }
+
+    // Devuelve el formato reconocido; el archivo se lee solo hasta la cabecera
+    public static String requireImage(MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("El archivo no puede estar vacío");
+        }
+        byte[] header;
+        try (InputStream input = file.getInputStream()) {
+            header = input.readNBytes(HEADER_LENGTH);
+        }
+        String format = formatOf(header);
+        if (format == null) {
+            throw new IllegalArgumentException("El archivo " + file.getOriginalFilename()
+                    + " debe ser una imagen JPEG, PNG, GIF o WebP");
+        }
+        return format;
+    }
+
+    public static String formatOf(byte[] header) {
+        if (startsWith(header, 0, 0xFF, 0xD8, 0xFF)) {
+            return "jpeg";
+        }
+        if (startsWith(header, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "png";
+        }
+        if (startsWith(header, 0, 'G', 'I', 'F', '8') && header.length > 5
+                && (header[4] == '7' || header[4] == '9') && header[5] == 'a') {
+            return "gif";
+        }
+        if (startsWith(header, 0, 'R', 'I', 'F', 'F') && startsWith(header, 8, 'W', 'E', 'B', 'P')) {
+            return "webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] header, int offset, int... expected) {
+        if (header.length < offset + expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if ((header[offset + i] & 0xFF) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
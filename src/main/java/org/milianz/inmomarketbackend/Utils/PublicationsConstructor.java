@@ -39,6 +39,14 @@ public class PublicationsConstructor {
                             .map(PropertyImage::getImageUrl)
                             .toList();
                     dto.setPropertyImageUrls(imageUrls);
+        dto.setPropertyCardImageUrls(propertyImages
+                .stream()
+                .map(PropertyImage::cardOrOriginalUrl)
+                .toList());
+                    dto.setPropertyCardImageUrls(publication.getPropertyImages()
+                            .stream()
+                            .map(PropertyImage::cardOrOriginalUrl)
+                            .toList());
 
                     List<AvailableTime> availableTimes = publication.getAvailableTimes();
                     List<AvailableTimeDefaultDTO> availableTimeDTOs = availableTimes.stream()
@@ -54,6 +62,12 @@ public class PublicationsConstructor {
     }
 
     public PublicationDefaultDTO PublicationUnique(Publication publication) {
+        return PublicationWithDetails(publication, publication.getPropertyImages(), publication.getAvailableTimes());
+    }
+
+    // Para cuando las imágenes y horarios ya se cargaron aparte, sin tocar las colecciones perezosas
+    public PublicationDefaultDTO PublicationWithDetails(Publication publication, List<PropertyImage> propertyImages,
+                                                        List<AvailableTime> availableTimes) {
         PublicationDefaultDTO dto = new PublicationDefaultDTO();
         dto.setId(publication.getId());
         dto.setPropertyAddress(publication.getPropertyAddress());
@@ -71,13 +85,16 @@ public class PublicationsConstructor {
         dto.setPropertyDescription(publication.getPropertyDescription());
         dto.setPropertyPrice(publication.getPropertyPrice());
 
-        List<String> imageUrls = publication.getPropertyImages()
+        List<String> imageUrls = propertyImages
                 .stream()
                 .map(PropertyImage::getImageUrl)
                 .toList();
         dto.setPropertyImageUrls(imageUrls);
+        dto.setPropertyCardImageUrls(propertyImages
+                .stream()
+                .map(PropertyImage::cardOrOriginalUrl)
+                .toList());
 
-        List<AvailableTime> availableTimes = publication.getAvailableTimes();
         List<AvailableTimeDefaultDTO> availableTimeDTOs = availableTimes.stream()
                 .map(at -> new AvailableTimeDefaultDTO(at.getDayOfWeek(), at.getStartTime(), at.getEndTime()))
                 .toList();
@@ -0,0 +1,169 @@
+package org.milianz.inmomarketbackend.Controllers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.milianz.inmomarketbackend.Domain.Repositories.iPropertyImageRepository;
+import org.milianz.inmomarketbackend.Domain.Repositories.iUserRepository;
+import org.milianz.inmomarketbackend.Storage.LocalBlobStorage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ImageControllerTest {
+
+    @TempDir
+    Path temp;
+
+    private ImageController controller;
+    private byte[] content;
+    private String name;
+    private String etag;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        LocalBlobStorage storage = new LocalBlobStorage(temp.resolve("blobs").toString(), "/api/images", 600,
+                mock(iPropertyImageRepository.class), mock(iUserRepository.class));
+        controller = new ImageController(storage);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(new byte[]{(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A});
+        for (int i = 0; i < 200; i++) {
+            bytes.write(i);
+        }
+        content = bytes.toByteArray();
+        Path upload = Files.write(temp.resolve("upload.png"), content);
+        String url = storage.store(upload, "publications");
+        name = url.substring(url.lastIndexOf('/') + 1);
+        etag = "\"" + name.substring(0, name.indexOf('.')) + "\"";
+    }
+
+    @Test
+    void servesTheWholeFileWithImmutableCaching() throws IOException {
+        MockHttpServletResponse response = get(request());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(content);
+        assertThat(response.getContentType()).isEqualTo("image/png");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).contains("immutable");
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+    }
+
+    @Test
+    void answersAMatchingEtagWithNotModified() throws IOException {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+
+        MockHttpServletResponse response = get(request);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void servesASingleRange() throws IOException {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-19");
+
+        MockHttpServletResponse response = get(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 10-19/" + content.length);
+        assertThat(response.getContentLengthLong()).isEqualTo(10);
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, 10, 20));
+    }
+
+    @Test
+    void servesASuffixRange() throws IOException {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=-5");
+
+        MockHttpServletResponse response = get(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, content.length - 5, content.length));
+    }
+
+    @Test
+    void rejectsARangePastTheEnd() throws IOException {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=" + content.length + "-");
+
+        MockHttpServletResponse response = get(request);
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */" + content.length);
+    }
+
+    @Test
+    void ignoresMultipleOrMalformedRanges() throws IOException {
+        for (String range : new String[]{"bytes=0-1,5-6", "bytes=abc", "items=0-1"}) {
+            MockHttpServletRequest request = request();
+            request.addHeader(HttpHeaders.RANGE, range);
+
+            MockHttpServletResponse response = get(request);
+
+            assertThat(response.getStatus()).as(range).isEqualTo(200);
+            assertThat(response.getContentAsByteArray()).as(range).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void honorsIfRangeOnlyWhenTheEtagMatches() throws IOException {
+        MockHttpServletRequest matching = request();
+        matching.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        matching.addHeader(HttpHeaders.IF_RANGE, etag);
+        MockHttpServletRequest stale = request();
+        stale.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        stale.addHeader(HttpHeaders.IF_RANGE, "\"otro\"");
+
+        assertThat(get(matching).getStatus()).isEqualTo(206);
+        MockHttpServletResponse full = get(stale);
+        assertThat(full.getStatus()).isEqualTo(200);
+        assertThat(full.getContentAsByteArray()).isEqualTo(content);
+    }
+
+    @Test
+    void handsTheRangeToSendfileWhenTheContainerSupportsIt() throws IOException {
+        MockHttpServletRequest request = request();
+        request.setAttribute("org.apache.tomcat.sendfile.support", true);
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-19");
+
+        MockHttpServletResponse response = get(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(10L);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(20L);
+        assertThat((String) request.getAttribute("org.apache.tomcat.sendfile.filename")).endsWith(name);
+    }
+
+    @Test
+    void unknownOrInvalidNamesAreNotFound() throws IOException {
+        assertThat(get("a".repeat(64) + ".png", request()).getStatus()).isEqualTo(404);
+        assertThat(get("..%2F..%2Fetc%2Fpasswd", request()).getStatus()).isEqualTo(404);
+    }
+
+    private MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/images/" + name);
+    }
+
+    private MockHttpServletResponse get(MockHttpServletRequest request) throws IOException {
+        return get(name, request);
+    }
+
+    private MockHttpServletResponse get(String imageName, MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.getImage(imageName, request, response);
+        return response;
+    }
+}
@@ -0,0 +1,131 @@
+package org.milianz.inmomarketbackend.Domain.Repositories;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.jpa.domain.Specification;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.mockito.Mockito.mock;
+
+// Evalúa una Specification sobre entidades en memoria, para comparar los índices con la consulta real sin base de datos.
+// Root, Path y CriteriaBuilder son simulados: cada expresión que devuelven queda asociada a la función que la
+// resuelve para una entidad. Cubre las operaciones que usan PublicationSpecifications y KeysetSpecifications.
+// Los UUID se comparan byte a byte sin signo, como en PostgreSQL.
+public final class SpecificationEvaluator {
+
+    private final Map<Object, Function<Object, Object>> expressions = new IdentityHashMap<>();
+
+    private SpecificationEvaluator() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> java.util.function.Predicate<T> evaluate(Specification<T> specification) {
+        SpecificationEvaluator evaluator = new SpecificationEvaluator();
+        Root<T> root = (Root<T>) evaluator.path(Root.class, entity -> entity);
+        CriteriaBuilder cb = mock(CriteriaBuilder.class, invocation ->
+                evaluator.operation(invocation.getMethod().getName(), invocation.getArguments()));
+        Predicate predicate = specification.toPredicate(root, null, cb);
+        Function<Object, Object> condition = evaluator.expressions.get(predicate);
+        return entity -> Boolean.TRUE.equals(condition.apply(entity));
+    }
+
+    private Object path(Class<?> type, Function<Object, Object> getter) {
+        Object path = mock(type, invocation -> switch (invocation.getMethod().getName()) {
+            case "get" -> path(Path.class, entity -> property(getter.apply(entity), invocation.getArgument(0)));
+            case "toString" -> "Path";
+            default -> null;
+        });
+        expressions.put(path, getter);
+        return path;
+    }
+
+    private Object operation(String name, Object[] arguments) {
+        return switch (name) {
+            case "toString" -> "CriteriaBuilder";
+            case "equal" -> predicate(entity -> {
+                Object left = valueOf(arguments[0], entity);
+                Object right = valueOf(arguments[1], entity);
+                // numeric no distingue la escala: 3000 y 3000.00 son iguales
+                if (left instanceof BigDecimal leftNumber && right instanceof BigDecimal rightNumber) {
+                    return leftNumber.compareTo(rightNumber) == 0;
+                }
+                return left != null && Objects.equals(left, right);
+            });
+            case "greaterThan", "gt" -> comparison(arguments, result -> result > 0);
+            case "greaterThanOrEqualTo", "ge" -> comparison(arguments, result -> result >= 0);
+            case "lessThan", "lt" -> comparison(arguments, result -> result < 0);
+            case "lessThanOrEqualTo", "le" -> comparison(arguments, result -> result <= 0);
+            case "quot" -> expression(Path.class, entity -> {
+                BigDecimal dividend = (BigDecimal) valueOf(arguments[0], entity);
+                BigDecimal divisor = (BigDecimal) valueOf(arguments[1], entity);
+                return dividend == null || divisor == null || divisor.signum() == 0
+                        ? null : dividend.divide(divisor, MathContext.DECIMAL64);
+            });
+            case "and" -> predicate(entity -> {
+                for (Object argument : arguments) {
+                    if (!Boolean.TRUE.equals(valueOf(argument, entity))) {
+                        return false;
+                    }
+                }
+                return true;
+            });
+            case "or" -> predicate(entity -> {
+                for (Object argument : arguments) {
+                    if (Boolean.TRUE.equals(valueOf(argument, entity))) {
+                        return true;
+                    }
+                }
+                return false;
+            });
+            default -> throw new UnsupportedOperationException("CriteriaBuilder." + name);
+        };
+    }
+
+    // Como en SQL, una comparación con null no se cumple
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object comparison(Object[] arguments, java.util.function.IntPredicate accepts) {
+        return predicate(entity -> {
+            Object left = valueOf(arguments[0], entity);
+            Object right = valueOf(arguments[1], entity);
+            if (left == null || right == null) {
+                return false;
+            }
+            return accepts.test(left instanceof UUID leftId && right instanceof UUID rightId
+                    ? compareUnsigned(leftId, rightId)
+                    : ((Comparable) left).compareTo(right));
+        });
+    }
+
+    private Object predicate(Function<Object, Object> condition) {
+        return expression(Predicate.class, condition);
+    }
+
+    private Object expression(Class<?> type, Function<Object, Object> value) {
+        Object expression = mock(type);
+        expressions.put(expression, value);
+        return expression;
+    }
+
+    private Object valueOf(Object argument, Object entity) {
+        Function<Object, Object> expression = expressions.get(argument);
+        return expression != null ? expression.apply(entity) : argument;
+    }
+
+    public static int compareUnsigned(UUID a, UUID b) {
+        int byHigh = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return byHigh != 0 ? byHigh : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    private static Object property(Object entity, String name) {
+        return entity == null ? null : new BeanWrapperImpl(entity).getPropertyValue(name);
+    }
+}
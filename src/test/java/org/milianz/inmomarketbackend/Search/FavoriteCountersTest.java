@@ -0,0 +1,136 @@
+package org.milianz.inmomarketbackend.Search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.milianz.inmomarketbackend.Domain.Entities.PublicationStats;
+import org.milianz.inmomarketbackend.Domain.Repositories.iFavoriteRepository;
+import org.milianz.inmomarketbackend.Domain.Repositories.iPublicationStatsRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FavoriteCountersTest {
+
+    private iFavoriteRepository favoriteRepository;
+    private iPublicationStatsRepository publicationStatsRepository;
+    private FavoriteCounters counters;
+    // Lo que quedó guardado en publication_stats, una entrada por saveAll
+    private final List<Map<UUID, Long>> saves = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        favoriteRepository = mock(iFavoriteRepository.class);
+        publicationStatsRepository = mock(iPublicationStatsRepository.class);
+        counters = new FavoriteCounters(favoriteRepository, publicationStatsRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        when(favoriteRepository.countGroupedByPublication()).thenReturn(List.of());
+        when(publicationStatsRepository.findAll()).thenReturn(List.of());
+        when(publicationStatsRepository.findAllById(any())).thenReturn(List.of());
+        when(publicationStatsRepository.saveAll(any())).thenAnswer(invocation -> record(invocation.getArgument(0)));
+    }
+
+    @Test
+    void loadReconcilesStoredCountsWithTheFavorites() {
+        UUID wrong = UUID.randomUUID();
+        UUID right = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        when(favoriteRepository.countGroupedByPublication())
+                .thenReturn(List.of(new Object[]{wrong, 3L}, new Object[]{right, 2L}, new Object[]{missing, 1L}));
+        when(publicationStatsRepository.findAll()).thenReturn(List.of(
+                PublicationStats.builder().publicationId(wrong).favoriteCount(9).build(),
+                PublicationStats.builder().publicationId(right).favoriteCount(2).build()));
+
+        counters.load();
+        counters.flush();
+
+        assertThat(counters.count(wrong)).isEqualTo(3);
+        assertThat(saves).hasSize(1);
+        assertThat(saves.get(0)).containsOnly(Map.entry(wrong, 3L), Map.entry(missing, 1L));
+    }
+
+    @Test
+    void concurrentTogglesAddUpExactly() throws Exception {
+        UUID publicationId = UUID.randomUUID();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 2_000; i++) {
+            boolean added = i % 4 != 0;
+            pool.execute(() -> counters.onFavoriteChanged(event(publicationId, added)));
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(counters.count(publicationId)).isEqualTo(1_500 - 500);
+    }
+
+    @Test
+    void aFailedBatchIsRequeuedWithItsLatestCount() {
+        UUID publicationId = UUID.randomUUID();
+        counters.onFavoriteChanged(event(publicationId, true));
+        AtomicInteger calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (calls.getAndIncrement() == 0) {
+                throw new IllegalStateException("sin conexión");
+            }
+            return record(invocation.getArgument(0));
+        }).when(publicationStatsRepository).saveAll(any());
+
+        counters.flush();
+        // Un cambio entre pasadas se guarda junto con el reintento
+        counters.onFavoriteChanged(event(publicationId, true));
+        counters.flush();
+
+        assertThat(saves).containsExactly(Map.of(publicationId, 2L));
+    }
+
+    @Test
+    void onlyTheFailedBatchIsRetried() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 1_200; i++) {
+            UUID publicationId = UUID.randomUUID();
+            ids.add(publicationId);
+            counters.onFavoriteChanged(event(publicationId, true));
+        }
+        AtomicInteger calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (calls.getAndIncrement() == 1) {
+                throw new IllegalStateException("lote rechazado");
+            }
+            return record(invocation.getArgument(0));
+        }).when(publicationStatsRepository).saveAll(any());
+
+        counters.flush();
+        assertThat(saves).hasSize(2);
+        int savedFirst = saves.get(0).size() + saves.get(1).size();
+
+        counters.flush();
+        assertThat(saves).hasSize(3);
+        assertThat(savedFirst + saves.get(2).size()).isEqualTo(ids.size());
+        assertThat(saves.get(2).keySet()).doesNotContainAnyElementsOf(saves.get(0).keySet());
+    }
+
+    private Iterable<PublicationStats> record(Iterable<PublicationStats> rows) {
+        Map<UUID, Long> saved = new HashMap<>();
+        rows.forEach(row -> saved.put(row.getPublicationId(), row.getFavoriteCount()));
+        saves.add(saved);
+        return rows;
+    }
+
+    private static FavoriteChangedEvent event(UUID publicationId, boolean added) {
+        return new FavoriteChangedEvent(UUID.randomUUID(), publicationId, added, LocalDateTime.now());
+    }
+}
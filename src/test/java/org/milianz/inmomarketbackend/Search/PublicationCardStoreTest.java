@@ -0,0 +1,97 @@
+package org.milianz.inmomarketbackend.Search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.milianz.inmomarketbackend.Domain.Entities.Location;
+import org.milianz.inmomarketbackend.Domain.Entities.PropertyType;
+import org.milianz.inmomarketbackend.Domain.Entities.Publication;
+import org.milianz.inmomarketbackend.Domain.Entities.User;
+import org.milianz.inmomarketbackend.Domain.Repositories.iPublicationRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PublicationCardStoreTest {
+
+    private final UUID ownerId = UUID.randomUUID();
+    private final UUID publicationId = UUID.randomUUID();
+
+    private iPublicationRepository publicationRepository;
+    private FavoriteCounters favoriteCounters;
+    private PublicationCardStore cardStore;
+
+    @BeforeEach
+    void setUp() {
+        publicationRepository = mock(iPublicationRepository.class);
+        favoriteCounters = mock(FavoriteCounters.class);
+        cardStore = new PublicationCardStore(mock(CatalogVersion.class), favoriteCounters, publicationRepository,
+                mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void rebuildsTheCardFromTheCommittedState() {
+        cardStore.load(List.of(publication("Ana", "Casa vieja")));
+        when(publicationRepository.findWithDetailsById(publicationId))
+                .thenReturn(Optional.of(publication("Ana", "Casa nueva")));
+        when(favoriteCounters.count(publicationId)).thenReturn(7L);
+
+        cardStore.refresh(publicationId);
+
+        PublicationCard card = cardStore.find(publicationId).orElseThrow();
+        assertThat(card.getPropertyTitle()).isEqualTo("Casa nueva");
+        assertThat(card.getFavoriteCount()).isEqualTo(7);
+    }
+
+    @Test
+    void aReadOvertakenByANewerChangeIsRepeated() {
+        cardStore.load(List.of(publication("Ana", "Casa")));
+        // Mientras se lee la publicación, otro cambio confirma y se aplica antes: esa lectura quedó vieja
+        when(publicationRepository.findWithDetailsById(publicationId))
+                .thenAnswer(invocation -> {
+                    cardStore.renameOwner(ownerId, "Ana María");
+                    return Optional.of(publication("Ana", "Casa con fotos"));
+                })
+                .thenReturn(Optional.of(publication("Ana María", "Casa con fotos")));
+
+        cardStore.refresh(publicationId);
+
+        PublicationCard card = cardStore.find(publicationId).orElseThrow();
+        assertThat(card.getUserName()).isEqualTo("Ana María");
+        assertThat(card.getPropertyTitle()).isEqualTo("Casa con fotos");
+        verify(publicationRepository, times(2)).findWithDetailsById(publicationId);
+    }
+
+    @Test
+    void aDeletedPublicationKeepsItsLastCard() {
+        cardStore.load(List.of(publication("Ana", "Casa")));
+        when(publicationRepository.findWithDetailsById(publicationId)).thenReturn(Optional.empty());
+
+        cardStore.refresh(publicationId);
+
+        assertThat(cardStore.find(publicationId)).map(PublicationCard::getPropertyTitle).contains("Casa");
+    }
+
+    private Publication publication(String ownerName, String title) {
+        return Publication.builder()
+                .id(publicationId)
+                .user(User.builder().id(ownerId).name(ownerName).build())
+                .location(Location.builder().department("San Salvador").municipality("Centro").neighborhood("Escalón").build())
+                .propertyType(PropertyType.builder().typeName("Casa").build())
+                .propertyTitle(title)
+                .propertyAddress("Calle 1")
+                .propertyPrice(BigDecimal.valueOf(150_000))
+                .propertySize(BigDecimal.valueOf(120))
+                .createdAt(LocalDateTime.now())
+                .status(Publication.PublicationStatus.ACTIVE)
+                .build();
+    }
+}
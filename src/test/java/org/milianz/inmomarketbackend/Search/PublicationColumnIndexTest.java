@@ -0,0 +1,140 @@
+package org.milianz.inmomarketbackend.Search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.milianz.inmomarketbackend.Domain.Entities.Location;
+import org.milianz.inmomarketbackend.Domain.Entities.PropertyType;
+import org.milianz.inmomarketbackend.Domain.Entities.Publication;
+import org.milianz.inmomarketbackend.Domain.Repositories.PublicationSpecifications;
+import org.milianz.inmomarketbackend.Domain.Repositories.SpecificationEvaluator;
+import org.roaringbitmap.RoaringBitmap;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Paginar por el índice de columnas debe dar las mismas páginas que PublicationSpecifications.sortOf/after,
+// que desempatan por id. Los precios se repiten a propósito para que haya muchos empates.
+class PublicationColumnIndexTest {
+
+    private static final int PAGE = 7;
+
+    private final Random random = new Random(7);
+    private final Map<UUID, Publication> publications = new HashMap<>();
+    private PublicationOrdinals ordinals;
+    private PublicationColumnIndex columnIndex;
+
+    @BeforeEach
+    void setUp() {
+        ordinals = new PublicationOrdinals();
+        columnIndex = new PublicationColumnIndex(ordinals);
+        for (int i = 0; i < 400; i++) {
+            Publication publication = publication(BigDecimal.valueOf(1_000L * (1 + random.nextInt(12))));
+            publications.put(publication.getId(), publication);
+        }
+        columnIndex.load(publications.values().stream().map(IndexedPublication::of).toList());
+    }
+
+    @Test
+    void scanningTheColumnPagesLikeTheDatabase() {
+        // Casi todas son candidatas: se recorre la columna desde el cursor
+        RoaringBitmap candidates = candidates(0.9);
+
+        assertPagesMatchDatabase("price_asc", candidates);
+        assertPagesMatchDatabase("price_desc", candidates);
+    }
+
+    @Test
+    void fewCandidatesPageLikeTheDatabase() {
+        // Pocas candidatas: se evalúa cada una con el montículo
+        RoaringBitmap candidates = candidates(0.03);
+
+        assertPagesMatchDatabase("price_asc", candidates);
+        assertPagesMatchDatabase("price_desc", candidates);
+    }
+
+    @Test
+    void aCursorSurvivesItsRowChangingPrice() {
+        RoaringBitmap candidates = candidates(1.0);
+        List<UUID> first = indexPage("price_asc", candidates, null, null);
+        Publication last = publications.get(first.get(first.size() - 1));
+        BigDecimal cursorPrice = last.getPropertyPrice();
+
+        last.setPropertyPrice(BigDecimal.valueOf(999_000));
+        columnIndex.index(IndexedPublication.of(last));
+
+        assertThat(indexPage("price_asc", candidates, cursorPrice, last.getId()))
+                .isEqualTo(databasePage("price_asc", candidates, cursorPrice, last.getId()));
+    }
+
+    private void assertPagesMatchDatabase(String sort, RoaringBitmap candidates) {
+        BigDecimal afterPrice = null;
+        UUID afterId = null;
+        List<UUID> seen = new ArrayList<>();
+        while (true) {
+            List<UUID> page = indexPage(sort, candidates, afterPrice, afterId);
+            assertThat(page).as("%s after %s/%s", sort, afterPrice, afterId)
+                    .isEqualTo(databasePage(sort, candidates, afterPrice, afterId));
+            if (page.isEmpty()) {
+                break;
+            }
+            seen.addAll(page);
+            Publication last = publications.get(page.get(page.size() - 1));
+            afterPrice = last.getPropertyPrice();
+            afterId = last.getId();
+        }
+        assertThat(seen).doesNotHaveDuplicates().hasSize(candidates.getCardinality());
+    }
+
+    private List<UUID> indexPage(String sort, RoaringBitmap candidates, BigDecimal afterPrice, UUID afterId) {
+        List<Integer> top = columnIndex.top(PublicationColumnIndex.Column.PRICE, candidates, PAGE,
+                PublicationSpecifications.isAscending(sort), afterPrice != null ? afterPrice.doubleValue() : null, afterId);
+        return top.stream().map(ordinals::idOf).toList();
+    }
+
+    // Lo que devolvería la consulta: filtro de cursor, orden (precio, id) y límite
+    private List<UUID> databasePage(String sort, RoaringBitmap candidates, BigDecimal afterPrice, UUID afterId) {
+        Comparator<Publication> order = Comparator.comparing(Publication::getPropertyPrice)
+                .thenComparing(Publication::getId, SpecificationEvaluator::compareUnsigned);
+        if (!PublicationSpecifications.isAscending(sort)) {
+            order = order.reversed();
+        }
+        var after = afterId != null
+                ? SpecificationEvaluator.evaluate(PublicationSpecifications.after(sort, afterPrice.toPlainString(), afterId))
+                : null;
+        return publications.values().stream()
+                .filter(publication -> candidates.contains(ordinals.find(publication.getId())))
+                .filter(publication -> after == null || after.test(publication))
+                .sorted(order)
+                .limit(PAGE)
+                .map(Publication::getId)
+                .toList();
+    }
+
+    private RoaringBitmap candidates(double share) {
+        RoaringBitmap candidates = new RoaringBitmap();
+        for (UUID id : publications.keySet()) {
+            if (random.nextDouble() < share) {
+                candidates.add(ordinals.find(id));
+            }
+        }
+        return candidates;
+    }
+
+    private Publication publication(BigDecimal price) {
+        return Publication.builder()
+                .id(UUID.randomUUID())
+                .location(Location.builder().department("San Salvador").municipality("Centro").neighborhood("Escalón").build())
+                .propertyType(PropertyType.builder().typeName("Casa").build())
+                .propertyPrice(price)
+                .propertySize(BigDecimal.valueOf(100))
+                .status(Publication.PublicationStatus.ACTIVE)
+                .build();
+    }
+}
@@ -0,0 +1,155 @@
+package org.milianz.inmomarketbackend.Search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationSearchDTO;
+import org.milianz.inmomarketbackend.Domain.Entities.Location;
+import org.milianz.inmomarketbackend.Domain.Entities.PropertyType;
+import org.milianz.inmomarketbackend.Domain.Entities.Publication;
+import org.milianz.inmomarketbackend.Domain.Entities.User;
+import org.milianz.inmomarketbackend.Domain.Repositories.PublicationSpecifications;
+import org.milianz.inmomarketbackend.Domain.Repositories.SpecificationEvaluator;
+import org.roaringbitmap.RoaringBitmap;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// El índice de facetas debe devolver exactamente lo mismo que PublicationSpecifications.matches sobre la base
+class PublicationFacetIndexTest {
+
+    private static final String[] DEPARTMENTS = {"San Salvador", "La Libertad", "Santa Ana"};
+    private static final String[] MUNICIPALITIES = {"Centro", "Norte", "Sur"};
+    private static final String[] TYPES = {"Casa", "Apartamento", "Terreno"};
+
+    private final Random random = new Random(42);
+    private final List<Publication> publications = new ArrayList<>();
+    private PublicationFacetIndex facetIndex;
+    private PublicationColumnIndex columnIndex;
+
+    @BeforeEach
+    void setUp() {
+        PublicationOrdinals ordinals = new PublicationOrdinals();
+        columnIndex = new PublicationColumnIndex(ordinals);
+        facetIndex = new PublicationFacetIndex(ordinals, columnIndex);
+        for (int i = 0; i < 300; i++) {
+            publications.add(randomPublication());
+        }
+        List<IndexedPublication> snapshot = publications.stream().map(IndexedPublication::of).toList();
+        columnIndex.load(snapshot);
+        facetIndex.load(snapshot);
+    }
+
+    @Test
+    void matchesTheSpecificationForRandomFilters() {
+        for (int i = 0; i < 200; i++) {
+            assertSameAsSpecification(randomFilters());
+        }
+    }
+
+    @Test
+    void followsUpdatesAfterTheLoad() {
+        for (int i = 0; i < 60; i++) {
+            Publication publication = publications.get(random.nextInt(publications.size()));
+            publication.setStatus(random.nextBoolean()
+                    ? Publication.PublicationStatus.ACTIVE : Publication.PublicationStatus.INACTIVE);
+            publication.setPropertyPrice(BigDecimal.valueOf(10_000 + random.nextInt(400_000)));
+            publication.setPropertyBedrooms(1 + random.nextInt(4));
+            publication.getLocation().setDepartment(DEPARTMENTS[random.nextInt(DEPARTMENTS.length)]);
+            columnIndex.index(IndexedPublication.of(publication));
+            facetIndex.index(IndexedPublication.of(publication));
+        }
+
+        for (int i = 0; i < 200; i++) {
+            assertSameAsSpecification(randomFilters());
+        }
+    }
+
+    @Test
+    void anUnknownValueMatchesNothing() {
+        PublicationSearchDTO filters = new PublicationSearchDTO();
+        filters.setDepartment("Morazán");
+
+        assertThat(facetIndex.match(filters).isEmpty()).isTrue();
+        assertSameAsSpecification(filters);
+    }
+
+    private void assertSameAsSpecification(PublicationSearchDTO filters) {
+        Predicate<Publication> specification = SpecificationEvaluator.evaluate(PublicationSpecifications.matches(filters));
+        Set<UUID> expected = publications.stream()
+                .filter(specification)
+                .map(Publication::getId)
+                .collect(Collectors.toSet());
+
+        RoaringBitmap matches = facetIndex.match(filters);
+        List<Integer> ordinals = new ArrayList<>();
+        matches.forEach((int ordinal) -> ordinals.add(ordinal));
+
+        assertThat(new HashSet<>(facetIndex.idsOf(ordinals))).as("filters %s", filters).isEqualTo(expected);
+    }
+
+    private PublicationSearchDTO randomFilters() {
+        PublicationSearchDTO filters = new PublicationSearchDTO();
+        filters.setStatus(random.nextInt(4) == 0 ? null : Publication.PublicationStatus.ACTIVE);
+        if (random.nextBoolean()) {
+            filters.setDepartment(DEPARTMENTS[random.nextInt(DEPARTMENTS.length)]);
+        }
+        if (random.nextInt(3) == 0) {
+            filters.setMunicipality(MUNICIPALITIES[random.nextInt(MUNICIPALITIES.length)]);
+        }
+        if (random.nextBoolean()) {
+            filters.setTypeName(TYPES[random.nextInt(TYPES.length)]);
+        }
+        if (random.nextInt(3) == 0) {
+            filters.setBedrooms(1 + random.nextInt(4));
+        }
+        if (random.nextInt(4) == 0) {
+            filters.setFurnished(random.nextBoolean());
+        }
+        if (random.nextBoolean()) {
+            filters.setMinPrice(BigDecimal.valueOf(random.nextInt(200_000)));
+        }
+        if (random.nextBoolean()) {
+            filters.setMaxPrice(BigDecimal.valueOf(100_000 + random.nextInt(300_000)));
+        }
+        if (random.nextInt(3) == 0) {
+            filters.setMinSize(BigDecimal.valueOf(30 + random.nextInt(200)));
+        }
+        if (random.nextInt(4) == 0) {
+            // Con tres decimales ningún cociente de enteros cae justo en el límite
+            filters.setMaxPricePerSquareMeter(new BigDecimal(random.nextInt(3_000) + ".123"));
+        }
+        return filters;
+    }
+
+    private Publication randomPublication() {
+        Location location = Location.builder()
+                .id(UUID.randomUUID())
+                .department(DEPARTMENTS[random.nextInt(DEPARTMENTS.length)])
+                .municipality(MUNICIPALITIES[random.nextInt(MUNICIPALITIES.length)])
+                .neighborhood("Colonia " + random.nextInt(10))
+                .build();
+        return Publication.builder()
+                .id(UUID.randomUUID())
+                .user(User.builder().id(UUID.randomUUID()).build())
+                .location(location)
+                .propertyType(PropertyType.builder().typeName(TYPES[random.nextInt(TYPES.length)]).build())
+                .propertyTitle("Propiedad")
+                .propertyAddress("Dirección")
+                .propertyPrice(BigDecimal.valueOf(10_000 + random.nextInt(400_000)))
+                .propertySize(BigDecimal.valueOf(30 + random.nextInt(470)))
+                .propertyBedrooms(1 + random.nextInt(4))
+                .propertyFloors(1 + random.nextInt(2))
+                .propertyParking(random.nextInt(3))
+                .propertyFurnished(random.nextInt(3) == 0 ? null : random.nextBoolean())
+                .status(random.nextInt(5) == 0 ? Publication.PublicationStatus.INACTIVE : Publication.PublicationStatus.ACTIVE)
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package org.milianz.inmomarketbackend.Search;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.milianz.inmomarketbackend.Domain.Entities.Location;
+import org.milianz.inmomarketbackend.Domain.Entities.PropertyType;
+import org.milianz.inmomarketbackend.Domain.Entities.Publication;
+import org.milianz.inmomarketbackend.Domain.Entities.User;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PublicationJsonCacheTest {
+
+    // Unos 2 KB por tarjeta: con 1 MB de búfer, 700 tarjetas dan la vuelta completa
+    private static final String DESCRIPTION = "x".repeat(2_000);
+
+    private ObjectMapper objectMapper;
+    private PublicationJsonCache cache;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = spy(new ObjectMapper().findAndRegisterModules());
+        cache = new PublicationJsonCache(objectMapper, 1);
+    }
+
+    @Test
+    void servesTheSameVersionFromTheBuffer() throws Exception {
+        PublicationCard card = card();
+
+        byte[] first = cache.object(card);
+        byte[] second = cache.object(card);
+
+        assertThat(second).isEqualTo(first);
+        verify(objectMapper, times(1)).writeValueAsBytes(any());
+    }
+
+    @Test
+    void aNewVersionIsSerializedAgain() {
+        PublicationCard card = card();
+        cache.object(card);
+
+        PublicationCard updated = card.withFavoriteCount(12);
+
+        assertThat(json(cache.object(updated))).contains("\"favoriteCount\":12");
+    }
+
+    @Test
+    void detectsEntriesOverwrittenByTheRing() throws Exception {
+        PublicationCard oldest = card();
+        String expected = json(cache.object(oldest));
+
+        List<PublicationCard> newer = new ArrayList<>();
+        for (int i = 0; i < 700; i++) {
+            PublicationCard card = card();
+            newer.add(card);
+            cache.object(card);
+        }
+        clearInvocations(objectMapper);
+
+        // Sus bytes ya fueron pisados: se vuelve a serializar en lugar de devolver los de otra tarjeta
+        assertThat(json(cache.object(oldest))).isEqualTo(expected);
+        verify(objectMapper, times(1)).writeValueAsBytes(any());
+
+        clearInvocations(objectMapper);
+        PublicationCard recent = newer.get(newer.size() - 1);
+        assertThat(json(cache.object(recent))).contains(recent.getId().toString());
+        verify(objectMapper, never()).writeValueAsBytes(any());
+    }
+
+    @Test
+    void pagesConcatenateTheCachedItems() {
+        PublicationCard first = card();
+        PublicationCard second = card();
+
+        String page = json(cache.page(List.of(first, second), "abc"));
+
+        assertThat(page).startsWith("{\"items\":[{").endsWith("}],\"nextCursor\":\"abc\"}");
+        assertThat(page).contains(first.getId().toString(), second.getId().toString());
+    }
+
+    private static String json(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static PublicationCard card() {
+        Publication publication = Publication.builder()
+                .id(UUID.randomUUID())
+                .user(User.builder().id(UUID.randomUUID()).name("Ana").build())
+                .location(Location.builder().department("San Salvador").municipality("Centro").neighborhood("Escalón").build())
+                .propertyType(PropertyType.builder().typeName("Casa").build())
+                .propertyTitle("Casa en Escalón")
+                .propertyAddress("Calle 1")
+                .propertyDescription(DESCRIPTION)
+                .propertyPrice(BigDecimal.valueOf(150_000))
+                .propertySize(BigDecimal.valueOf(120))
+                .createdAt(LocalDateTime.now())
+                .status(Publication.PublicationStatus.ACTIVE)
+                .build();
+        return PublicationCard.of(publication, 3);
+    }
+}
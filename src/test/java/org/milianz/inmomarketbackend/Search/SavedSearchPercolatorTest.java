@@ -0,0 +1,261 @@
+package org.milianz.inmomarketbackend.Search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationSearchDTO;
+import org.milianz.inmomarketbackend.Domain.Entities.Location;
+import org.milianz.inmomarketbackend.Domain.Entities.PropertyType;
+import org.milianz.inmomarketbackend.Domain.Entities.Publication;
+import org.milianz.inmomarketbackend.Domain.Entities.SavedSearch;
+import org.milianz.inmomarketbackend.Domain.Entities.SavedSearchMatch;
+import org.milianz.inmomarketbackend.Domain.Entities.User;
+import org.milianz.inmomarketbackend.Domain.Repositories.PublicationSpecifications;
+import org.milianz.inmomarketbackend.Domain.Repositories.SpecificationEvaluator;
+import org.milianz.inmomarketbackend.Domain.Repositories.iPublicationRepository;
+import org.milianz.inmomarketbackend.Domain.Repositories.iSavedSearchMatchRepository;
+import org.milianz.inmomarketbackend.Domain.Repositories.iSavedSearchRepository;
+import org.milianz.inmomarketbackend.Domain.Repositories.iUserRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// El percolador debe avisar a las mismas búsquedas guardadas que encontrarían la publicación con
+// PublicationSpecifications.matches, salvo las del propio dueño de la publicación
+class SavedSearchPercolatorTest {
+
+    private static final String[] DEPARTMENTS = {"San Salvador", "La Libertad", "Santa Ana"};
+    private static final String[] MUNICIPALITIES = {"Centro", "Norte", "Sur"};
+    private static final String[] NEIGHBORHOODS = {"Escalón", "San Benito", "Miramonte"};
+    private static final String[] TYPES = {"Casa", "Apartamento", "Terreno"};
+
+    private final Random random = new Random(11);
+    private final List<User> users = new ArrayList<>();
+    private final List<SavedSearch> savedSearches = new ArrayList<>();
+    // Coincidencias guardadas por publicación, tal como llegan al repositorio
+    private final Map<UUID, Set<UUID>> saved = new HashMap<>();
+
+    private iSavedSearchRepository savedSearchRepository;
+    private iSavedSearchMatchRepository savedSearchMatchRepository;
+    private SavedSearchPercolator percolator;
+
+    @BeforeEach
+    void setUp() {
+        savedSearchRepository = mock(iSavedSearchRepository.class);
+        savedSearchMatchRepository = mock(iSavedSearchMatchRepository.class);
+        iUserRepository userRepository = mock(iUserRepository.class);
+        iPublicationRepository publicationRepository = mock(iPublicationRepository.class);
+        percolator = new SavedSearchPercolator(savedSearchRepository, savedSearchMatchRepository, userRepository,
+                publicationRepository, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+        when(userRepository.getReferenceById(any()))
+                .thenAnswer(invocation -> User.builder().id(invocation.getArgument(0)).build());
+        when(savedSearchRepository.getReferenceById(any()))
+                .thenAnswer(invocation -> SavedSearch.builder().id(invocation.getArgument(0)).build());
+        when(publicationRepository.getReferenceById(any()))
+                .thenAnswer(invocation -> Publication.builder().id(invocation.getArgument(0)).build());
+        when(savedSearchMatchRepository.saveAll(any())).thenAnswer(invocation -> {
+            Iterable<SavedSearchMatch> matches = invocation.getArgument(0);
+            matches.forEach(this::record);
+            return matches;
+        });
+
+        for (int i = 0; i < 6; i++) {
+            users.add(User.builder().id(UUID.randomUUID()).build());
+        }
+        for (int i = 0; i < 400; i++) {
+            savedSearches.add(randomSavedSearch());
+        }
+        when(savedSearchRepository.findAll()).thenReturn(savedSearches);
+    }
+
+    @Test
+    void notifiesTheSameSearchesAsTheSpecification() {
+        percolator.load();
+
+        for (int i = 0; i < 150; i++) {
+            Publication publication = randomPublication();
+            percolator.onPublicationChanged(new PublicationChangedEvent(publication, null));
+            percolator.flush();
+
+            assertThat(saved.getOrDefault(publication.getId(), Set.of()))
+                    .as("publication %s", publication.getId())
+                    .isEqualTo(expectedMatches(publication));
+        }
+    }
+
+    @Test
+    void ignoresPublicationsThatWereAlreadyActive() {
+        percolator.load();
+        Publication publication = randomPublication();
+
+        percolator.onPublicationChanged(new PublicationChangedEvent(publication, Publication.PublicationStatus.ACTIVE));
+        percolator.flush();
+
+        assertThat(saved).isEmpty();
+    }
+
+    @Test
+    void dropsPendingMatchesOfAnUnregisteredSearch() {
+        SavedSearch search = SavedSearch.builder().id(UUID.randomUUID()).user(users.get(0)).build();
+        when(savedSearchRepository.findAll()).thenReturn(List.of(search));
+        percolator.load();
+        Publication publication = randomPublication();
+        publication.setUser(users.get(1));
+
+        percolator.onPublicationChanged(new PublicationChangedEvent(publication, null));
+        percolator.unregister(search.getId());
+        percolator.flush();
+
+        assertThat(saved).isEmpty();
+    }
+
+    @Test
+    void aFailedBatchIsRetriedRowByRow() {
+        SavedSearch failing = SavedSearch.builder().id(UUID.randomUUID()).user(users.get(0)).build();
+        SavedSearch healthy = SavedSearch.builder().id(UUID.randomUUID()).user(users.get(0)).build();
+        when(savedSearchRepository.findAll()).thenReturn(List.of(failing, healthy));
+        doThrow(new IllegalStateException("lote rechazado")).when(savedSearchMatchRepository).saveAll(any());
+        Set<UUID> attempts = new HashSet<>();
+        when(savedSearchMatchRepository.save(any())).thenAnswer(invocation -> {
+            SavedSearchMatch match = invocation.getArgument(0);
+            // La primera fila de la búsqueda que falla se rechaza una vez y pasa en la siguiente pasada
+            if (match.getSavedSearch().getId().equals(failing.getId()) && attempts.add(failing.getId())) {
+                throw new IllegalStateException("fila rechazada");
+            }
+            record(match);
+            return match;
+        });
+        percolator.load();
+        Publication publication = randomPublication();
+        publication.setUser(users.get(1));
+
+        percolator.onPublicationChanged(new PublicationChangedEvent(publication, null));
+        percolator.flush();
+        assertThat(saved.get(publication.getId())).containsOnly(healthy.getId());
+
+        percolator.flush();
+        assertThat(saved.get(publication.getId())).containsOnly(healthy.getId(), failing.getId());
+    }
+
+    private void record(SavedSearchMatch match) {
+        saved.computeIfAbsent(match.getPublication().getId(), id -> new HashSet<>()).add(match.getSavedSearch().getId());
+    }
+
+    // Lo que devolvería la consulta de cada búsqueda guardada, restringida a publicaciones activas
+    private Set<UUID> expectedMatches(Publication publication) {
+        Set<UUID> expected = new HashSet<>();
+        for (SavedSearch search : savedSearches) {
+            if (search.getUser().getId().equals(publication.getUser().getId())) {
+                continue;
+            }
+            Predicate<Publication> specification = SpecificationEvaluator.evaluate(PublicationSpecifications.matches(filtersOf(search)));
+            if (specification.test(publication)) {
+                expected.add(search.getId());
+            }
+        }
+        return expected;
+    }
+
+    private static PublicationSearchDTO filtersOf(SavedSearch search) {
+        PublicationSearchDTO filters = new PublicationSearchDTO();
+        filters.setDepartment(search.getDepartment());
+        filters.setMunicipality(search.getMunicipality());
+        filters.setNeighborhood(search.getNeighborhood());
+        filters.setTypeName(search.getTypeName());
+        filters.setMinPrice(search.getMinPrice());
+        filters.setMaxPrice(search.getMaxPrice());
+        filters.setMinSize(search.getMinSize());
+        filters.setMaxSize(search.getMaxSize());
+        filters.setBedrooms(search.getBedrooms());
+        filters.setFloors(search.getFloors());
+        filters.setParking(search.getParking());
+        filters.setFurnished(search.getFurnished());
+        filters.setStatus(Publication.PublicationStatus.ACTIVE);
+        return filters;
+    }
+
+    // Cada condición aparece con poca probabilidad, para que haya búsquedas ancladas en todas las claves
+    // (barrio, municipio, departamento, tipo, habitaciones, precio) y también búsquedas sin condiciones
+    private SavedSearch randomSavedSearch() {
+        SavedSearch.SavedSearchBuilder search = SavedSearch.builder()
+                .id(UUID.randomUUID())
+                .user(users.get(random.nextInt(users.size())))
+                .name("Búsqueda");
+        if (random.nextInt(6) == 0) {
+            search.neighborhood(NEIGHBORHOODS[random.nextInt(NEIGHBORHOODS.length)]);
+        }
+        if (random.nextInt(5) == 0) {
+            search.municipality(MUNICIPALITIES[random.nextInt(MUNICIPALITIES.length)]);
+        }
+        if (random.nextInt(4) == 0) {
+            search.department(DEPARTMENTS[random.nextInt(DEPARTMENTS.length)]);
+        }
+        if (random.nextInt(4) == 0) {
+            search.typeName(TYPES[random.nextInt(TYPES.length)]);
+        }
+        if (random.nextInt(4) == 0) {
+            search.bedrooms(1 + random.nextInt(4));
+        }
+        if (random.nextInt(3) == 0) {
+            search.minPrice(BigDecimal.valueOf(random.nextInt(200_000)));
+        }
+        if (random.nextInt(3) == 0) {
+            search.maxPrice(BigDecimal.valueOf(100_000 + random.nextInt(300_000)));
+        }
+        if (random.nextInt(5) == 0) {
+            search.minSize(BigDecimal.valueOf(30 + random.nextInt(200)));
+        }
+        if (random.nextInt(5) == 0) {
+            search.maxSize(BigDecimal.valueOf(150 + random.nextInt(350)));
+        }
+        if (random.nextInt(6) == 0) {
+            search.floors(1 + random.nextInt(2));
+        }
+        if (random.nextInt(6) == 0) {
+            search.parking(random.nextInt(3));
+        }
+        if (random.nextInt(6) == 0) {
+            search.furnished(random.nextBoolean());
+        }
+        return search.build();
+    }
+
+    private Publication randomPublication() {
+        Location location = Location.builder()
+                .id(UUID.randomUUID())
+                .department(DEPARTMENTS[random.nextInt(DEPARTMENTS.length)])
+                .municipality(MUNICIPALITIES[random.nextInt(MUNICIPALITIES.length)])
+                .neighborhood(NEIGHBORHOODS[random.nextInt(NEIGHBORHOODS.length)])
+                .build();
+        return Publication.builder()
+                .id(UUID.randomUUID())
+                .user(users.get(random.nextInt(users.size())))
+                .location(location)
+                .propertyType(PropertyType.builder().typeName(TYPES[random.nextInt(TYPES.length)]).build())
+                .propertyTitle("Propiedad")
+                .propertyAddress("Dirección")
+                .propertyPrice(BigDecimal.valueOf(10_000 + random.nextInt(400_000)))
+                .propertySize(BigDecimal.valueOf(30 + random.nextInt(470)))
+                .propertyBedrooms(1 + random.nextInt(4))
+                .propertyFloors(1 + random.nextInt(2))
+                .propertyParking(random.nextInt(3))
+                .propertyFurnished(random.nextInt(3) == 0 ? null : random.nextBoolean())
+                .status(Publication.PublicationStatus.ACTIVE)
+                .build();
+    }
+}
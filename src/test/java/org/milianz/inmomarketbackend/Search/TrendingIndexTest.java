@@ -0,0 +1,169 @@
+package org.milianz.inmomarketbackend.Search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.milianz.inmomarketbackend.Domain.Entities.Publication;
+import org.milianz.inmomarketbackend.Domain.Entities.PublicationStats;
+import org.milianz.inmomarketbackend.Domain.Repositories.iFavoriteRepository;
+import org.milianz.inmomarketbackend.Domain.Repositories.iPublicationRepository;
+import org.milianz.inmomarketbackend.Domain.Repositories.iPublicationStatsRepository;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TrendingIndexTest {
+
+    private final UUID first = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+    private final UUID third = UUID.randomUUID();
+
+    private iPublicationStatsRepository publicationStatsRepository;
+    private iFavoriteRepository favoriteRepository;
+    private iPublicationRepository publicationRepository;
+    private TrendingIndex trendingIndex;
+    private LocalDateTime savedAt;
+
+    @BeforeEach
+    void setUp() {
+        publicationStatsRepository = mock(iPublicationStatsRepository.class);
+        favoriteRepository = mock(iFavoriteRepository.class);
+        publicationRepository = mock(iPublicationRepository.class);
+        trendingIndex = new TrendingIndex(publicationStatsRepository, favoriteRepository, publicationRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+        savedAt = LocalDateTime.now();
+        List<Object[]> favorites = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            favorites.add(new Object[]{first, savedAt});
+        }
+        for (int i = 0; i < 2; i++) {
+            favorites.add(new Object[]{second, savedAt});
+        }
+        favorites.add(new Object[]{third, savedAt});
+
+        when(publicationRepository.findIdsByStatus(Publication.PublicationStatus.ACTIVE)).thenReturn(List.of(first, second, third));
+        when(publicationStatsRepository.findAll()).thenReturn(List.of());
+        when(favoriteRepository.findAllSavedAt()).thenReturn(favorites);
+        when(publicationStatsRepository.findAllById(any())).thenReturn(List.of());
+    }
+
+    @Test
+    void ranksByFavorites() {
+        trendingIndex.load();
+
+        assertThat(trendingIndex.top(10)).containsExactly(first, second, third);
+    }
+
+    @Test
+    void removingTheLastFavoriteDropsThePublication() {
+        trendingIndex.load();
+        long version = trendingIndex.version();
+
+        trendingIndex.onFavoriteChanged(new FavoriteChangedEvent(UUID.randomUUID(), third, false, savedAt));
+
+        assertThat(trendingIndex.top(10)).containsExactly(first, second);
+        assertThat(trendingIndex.version()).isGreaterThan(version);
+    }
+
+    @Test
+    void removingAnOldFavoriteKeepsTheRecentActivity() {
+        trendingIndex.load();
+        LocalDateTime weekAgo = LocalDateTime.now().minusDays(7);
+        trendingIndex.onFavoriteChanged(new FavoriteChangedEvent(UUID.randomUUID(), third, true, weekAgo));
+        trendingIndex.recordView(third);
+
+        // Quitar el favorito de hace una semana descuenta lo poco que aportaba, no el peso de uno nuevo
+        trendingIndex.onFavoriteChanged(new FavoriteChangedEvent(UUID.randomUUID(), third, false, weekAgo));
+        trendingIndex.flush();
+
+        assertThat(savedScores(1).get(third)).isCloseTo(6.0, within(0.01));
+    }
+
+    @Test
+    void inactivePublicationsLeaveTheRankingAndComeBack() {
+        trendingIndex.load();
+        Publication publication = Publication.builder().id(first).status(Publication.PublicationStatus.INACTIVE).build();
+
+        trendingIndex.onPublicationChanged(new PublicationChangedEvent(publication, Publication.PublicationStatus.ACTIVE));
+        assertThat(trendingIndex.top(10)).containsExactly(second, third);
+
+        publication.setStatus(Publication.PublicationStatus.ACTIVE);
+        trendingIndex.onPublicationChanged(new PublicationChangedEvent(publication, Publication.PublicationStatus.INACTIVE));
+        assertThat(trendingIndex.top(10)).containsExactly(first, second, third);
+    }
+
+    @Test
+    void aRolledBackDeactivationLeavesTheRankingAlone() {
+        trendingIndex.load();
+        Publication publication = Publication.builder().id(first).status(Publication.PublicationStatus.INACTIVE).build();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            trendingIndex.onPublicationChanged(new PublicationChangedEvent(publication, Publication.PublicationStatus.ACTIVE));
+            assertThat(trendingIndex.top(10)).containsExactly(first, second, third);
+        } finally {
+            // Sin afterCommit: la transacción no llegó a confirmarse
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(trendingIndex.top(10)).containsExactly(first, second, third);
+    }
+
+    @Test
+    void rebasingKeepsTheOrderAndTheStoredScores() {
+        // Una referencia de hace más de seis años deja los factores cerca de e^535
+        double landmark = System.currentTimeMillis() / 1000.0 - 200_000_000;
+        ReflectionTestUtils.setField(trendingIndex, "landmark", landmark);
+        trendingIndex.load();
+
+        trendingIndex.recordView(third);
+
+        assertThat((double) ReflectionTestUtils.getField(trendingIndex, "landmark")).isGreaterThan(landmark + 199_000_000);
+        assertThat(trendingIndex.top(10)).containsExactly(first, second, third);
+
+        trendingIndex.flush();
+        Map<UUID, Double> stored = savedScores(1);
+        assertThat(stored.get(first)).isCloseTo(15.0, within(0.01));
+        assertThat(stored.get(second)).isCloseTo(10.0, within(0.01));
+        assertThat(stored.get(third)).isCloseTo(6.0, within(0.01));
+    }
+
+    @Test
+    void aFailedFlushIsRetriedOnTheNextRun() {
+        trendingIndex.load();
+        when(publicationStatsRepository.saveAll(any()))
+                .thenThrow(new IllegalStateException("sin conexión"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        trendingIndex.flush();
+        trendingIndex.flush();
+
+        assertThat(savedScores(2)).containsOnlyKeys(first, second, third);
+    }
+
+    // Puntajes del último saveAll, después de verificar cuántas veces se llamó
+    @SuppressWarnings("unchecked")
+    private Map<UUID, Double> savedScores(int calls) {
+        ArgumentCaptor<Iterable<PublicationStats>> rows = ArgumentCaptor.forClass(Iterable.class);
+        verify(publicationStatsRepository, times(calls)).saveAll(rows.capture());
+        Map<UUID, Double> scores = new HashMap<>();
+        rows.getValue().forEach(row -> scores.put(row.getPublicationId(), row.getTrendingScore()));
+        return scores;
+    }
+}
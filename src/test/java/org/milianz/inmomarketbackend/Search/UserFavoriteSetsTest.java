@@ -0,0 +1,86 @@
+package org.milianz.inmomarketbackend.Search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.milianz.inmomarketbackend.Domain.Entities.DTOs.PublicationSummaryDTO;
+import org.milianz.inmomarketbackend.Domain.Repositories.iFavoriteRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserFavoriteSetsTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID older = UUID.randomUUID();
+    private final UUID newer = UUID.randomUUID();
+
+    private iFavoriteRepository favoriteRepository;
+    private PublicationOrdinals ordinals;
+    private UserFavoriteSets favoriteSets;
+
+    @BeforeEach
+    void setUp() {
+        favoriteRepository = mock(iFavoriteRepository.class);
+        ordinals = new PublicationOrdinals();
+        favoriteSets = new UserFavoriteSets(favoriteRepository, ordinals);
+        when(favoriteRepository.findPublicationIdsByUserId(userId)).thenReturn(List.of(older));
+    }
+
+    @Test
+    void marksFavoritesFromTheCachedSet() {
+        ordinals.ordinalFor(older);
+        ordinals.ordinalFor(newer);
+        PublicationSummaryDTO favorite = summary(older);
+        PublicationSummaryDTO other = summary(newer);
+
+        favoriteSets.mark(userId, List.of(favorite, other));
+        favoriteSets.mark(userId, List.of(favorite, other));
+
+        assertThat(favorite.getIsFavorite()).isTrue();
+        assertThat(other.getIsFavorite()).isFalse();
+        verify(favoriteRepository, times(1)).findPublicationIdsByUserId(userId);
+    }
+
+    @Test
+    void doesNotAssignOrdinalsBeforeTheIndexLoads() {
+        PublicationSummaryDTO favorite = summary(older);
+
+        // El índice todavía no cargó la publicación: no se le reserva ordinal y el set no se guarda
+        favoriteSets.mark(userId, List.of(favorite));
+        favoriteSets.onFavoriteChanged(new FavoriteChangedEvent(userId, newer, true, LocalDateTime.now()));
+        assertThat(ordinals.size()).isZero();
+        assertThat(favorite.getIsFavorite()).isFalse();
+
+        ordinals.ordinalFor(older);
+        favoriteSets.mark(userId, List.of(favorite));
+
+        assertThat(favorite.getIsFavorite()).isTrue();
+        verify(favoriteRepository, times(2)).findPublicationIdsByUserId(userId);
+    }
+
+    @Test
+    void aToggleOfAnUnknownPublicationDropsTheCachedSet() {
+        ordinals.ordinalFor(older);
+        favoriteSets.mark(userId, List.of(summary(older)));
+
+        favoriteSets.onFavoriteChanged(new FavoriteChangedEvent(userId, newer, true, LocalDateTime.now()));
+        when(favoriteRepository.findPublicationIdsByUserId(userId)).thenReturn(List.of(older, newer));
+        ordinals.ordinalFor(newer);
+        PublicationSummaryDTO added = summary(newer);
+        favoriteSets.mark(userId, List.of(added));
+
+        assertThat(added.getIsFavorite()).isTrue();
+    }
+
+    private static PublicationSummaryDTO summary(UUID id) {
+        PublicationSummaryDTO summary = new PublicationSummaryDTO();
+        summary.setId(id);
+        return summary;
+    }
+}
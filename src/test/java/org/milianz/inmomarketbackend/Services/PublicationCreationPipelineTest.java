@@ -0,0 +1,110 @@
+package org.milianz.inmomarketbackend.Services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.milianz.inmomarketbackend.Domain.Entities.PropertyImage;
+import org.milianz.inmomarketbackend.Domain.Entities.Publication;
+import org.milianz.inmomarketbackend.Domain.Repositories.iPublicationRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PublicationCreationPipelineTest {
+
+    @TempDir
+    Path spool;
+
+    private PublicationService publicationService;
+    private ImageStorageService imageStorageService;
+    private iPublicationRepository publicationRepository;
+    private PublicationCreationPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        publicationService = mock(PublicationService.class);
+        imageStorageService = mock(ImageStorageService.class);
+        publicationRepository = mock(iPublicationRepository.class);
+        pipeline = new PublicationCreationPipeline();
+        ReflectionTestUtils.setField(pipeline, "publicationService", publicationService);
+        ReflectionTestUtils.setField(pipeline, "imageStorageService", imageStorageService);
+        ReflectionTestUtils.setField(pipeline, "publicationRepository", publicationRepository);
+        ReflectionTestUtils.setField(pipeline, "spoolDir", spool.toString());
+
+        // Cada archivo se "sube" con una URL nueva, como lo haría el almacenamiento real
+        when(imageStorageService.uploadFiles(anyList())).thenAnswer(invocation -> {
+            List<Path> files = invocation.getArgument(0);
+            List<PropertyImage> images = new ArrayList<>();
+            files.forEach(file -> images.add(PropertyImage.builder().imageUrl("blob://" + UUID.randomUUID()).build()));
+            return images;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void resumesSpooledPublicationsAndClosesTheLostOnes() throws Exception {
+        UUID spooled = UUID.randomUUID();
+        UUID lost = UUID.randomUUID();
+        Path directory = Files.createDirectories(spool.resolve(spooled.toString()));
+        Files.writeString(directory.resolve("000"), "a");
+        Files.writeString(directory.resolve("001"), "b");
+        Path staging = Files.createDirectories(spool.resolve("staging-123"));
+        Path rendering = Files.writeString(spool.resolve("rendering-456.tmp"), "c");
+        when(publicationRepository.findIdsByStatus(Publication.PublicationStatus.PENDING)).thenReturn(List.of(spooled, lost));
+
+        pipeline.resume();
+
+        assertThat(staging).doesNotExist();
+        assertThat(rendering).doesNotExist();
+        verify(publicationService).completePendingPublication(eq(lost), any());
+        verify(publicationService, timeout(5_000)).completePendingPublication(eq(spooled), isNull());
+        verify(imageStorageService).uploadFiles(List.of(directory.resolve("000"), directory.resolve("001")));
+    }
+
+    @Test
+    void aFailedAttachDeletesTheUploadsAndRetries() throws Exception {
+        UUID publicationId = UUID.randomUUID();
+        Path directory = Files.createDirectories(spool.resolve(publicationId.toString()));
+        Files.writeString(directory.resolve("000"), "a");
+        when(publicationRepository.findIdsByStatus(Publication.PublicationStatus.PENDING)).thenReturn(List.of(publicationId));
+        List<String> attached = new ArrayList<>();
+        doThrow(new IllegalStateException("sin conexión"))
+                .doAnswer(invocation -> {
+                    List<PropertyImage> images = invocation.getArgument(1);
+                    images.forEach(image -> attached.add(image.getImageUrl()));
+                    return null;
+                })
+                .when(publicationService).attachImages(eq(publicationId), anyList());
+        doNothing().when(imageStorageService).deleteImage(any());
+
+        pipeline.resume();
+
+        // El primer intento sube y falla al guardar: esa subida se borra; el reintento llega a los 5 segundos
+        verify(publicationService, timeout(10_000)).completePendingPublication(eq(publicationId), isNull());
+        verify(imageStorageService, times(2)).uploadFiles(anyList());
+        verify(imageStorageService, times(1)).deleteImage(any());
+        verify(imageStorageService, never()).deleteImage(attached.get(0));
+    }
+}
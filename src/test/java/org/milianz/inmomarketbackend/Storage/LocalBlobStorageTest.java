@@ -0,0 +1,158 @@
+package org.milianz.inmomarketbackend.Storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.milianz.inmomarketbackend.Domain.Repositories.iPropertyImageRepository;
+import org.milianz.inmomarketbackend.Domain.Repositories.iUserRepository;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LocalBlobStorageTest {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 13};
+
+    @TempDir
+    Path temp;
+
+    private Path root;
+    private iPropertyImageRepository propertyImageRepository;
+    private iUserRepository userRepository;
+    private LocalBlobStorage storage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        root = temp.resolve("blobs");
+        propertyImageRepository = mock(iPropertyImageRepository.class);
+        userRepository = mock(iUserRepository.class);
+        storage = new LocalBlobStorage(root.toString(), "/api/images/", 600, propertyImageRepository, userRepository);
+    }
+
+    @Test
+    void theSameContentIsStoredOnce() throws IOException {
+        String first = storage.store(image("casa"), "publications");
+        String second = storage.store(image("casa"), "otra-carpeta");
+        String other = storage.store(image("terreno"), "publications");
+
+        assertThat(first).isEqualTo(second).matches("/api/images/[0-9a-f]{64}\\.png");
+        assertThat(other).isNotEqualTo(first);
+        assertThat(storage.resolve(nameOf(first))).isPresent();
+        try (var files = Files.walk(root)) {
+            assertThat(files.filter(Files::isRegularFile).count()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void rejectsFilesThatAreNotImages() throws IOException {
+        Path text = Files.writeString(temp.resolve("notas.txt"), "no soy una imagen");
+
+        assertThatThrownBy(() -> storage.store(text, "publications")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void resolvesOnlyContentAddressedNames() {
+        assertThat(storage.resolve("../../etc/passwd")).isEmpty();
+        assertThat(storage.resolve("a".repeat(64) + ".exe")).isEmpty();
+        assertThat(storage.resolve("a".repeat(64) + ".png")).isEmpty();
+    }
+
+    @Test
+    void aDeleteWaitsForTheSweepAndTheGracePeriod() throws IOException {
+        String url = storage.store(image("casa"), "publications");
+        Path file = storage.resolve(nameOf(url)).orElseThrow();
+
+        storage.delete(url);
+        assertThat(file).exists();
+
+        // Recién subido: dentro del período de gracia el barrido no lo toca
+        storage.sweep();
+        assertThat(file).exists();
+
+        age(file);
+        storage.sweep();
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    void aReferencedBlobIsKeptAndForgotten() throws IOException {
+        String url = storage.store(image("casa"), "publications");
+        Path file = storage.resolve(nameOf(url)).orElseThrow();
+        age(file);
+        when(propertyImageRepository.existsByImageUrlOrCardUrlOrThumbnailUrl(url, url, url)).thenReturn(true);
+
+        storage.delete(url);
+        storage.sweep();
+        assertThat(file).exists();
+
+        // Ya se olvidó: aunque deje de estar referenciado, el barrido no lo borra sin otro delete
+        when(propertyImageRepository.existsByImageUrlOrCardUrlOrThumbnailUrl(anyString(), anyString(), anyString()))
+                .thenReturn(false);
+        storage.sweep();
+        assertThat(file).exists();
+    }
+
+    @Test
+    void aProfilePictureKeepsTheBlob() throws IOException {
+        String url = storage.store(image("perfil"), "profiles");
+        Path file = storage.resolve(nameOf(url)).orElseThrow();
+        age(file);
+        when(userRepository.existsByProfilePicture(url)).thenReturn(true);
+
+        storage.delete(url);
+        storage.sweep();
+
+        assertThat(file).exists();
+    }
+
+    @Test
+    void uploadingTheSameContentAgainRestartsTheGracePeriod() throws IOException {
+        String url = storage.store(image("casa"), "publications");
+        Path file = storage.resolve(nameOf(url)).orElseThrow();
+        age(file);
+
+        // Otra subida del mismo contenido todavía no guardó su fila cuando corre el barrido
+        storage.delete(url);
+        storage.store(image("casa"), "publications");
+        storage.sweep();
+
+        assertThat(file).exists();
+    }
+
+    @Test
+    void ignoresUrlsFromOtherStorages() throws IOException {
+        String url = storage.store(image("casa"), "publications");
+        Path file = storage.resolve(nameOf(url)).orElseThrow();
+        age(file);
+
+        storage.delete("https://res.cloudinary.com/demo/image/upload/" + nameOf(url));
+        storage.sweep();
+
+        assertThat(file).exists();
+    }
+
+    private Path image(String content) throws IOException {
+        Path file = Files.createTempFile(temp, "upload-", ".bin");
+        Files.write(file, PNG);
+        Files.writeString(file, content, StandardOpenOption.APPEND);
+        return file;
+    }
+
+    private static void age(Path file) throws IOException {
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofHours(1))));
+    }
+
+    private static String nameOf(String url) {
+        return url.substring(url.lastIndexOf('/') + 1);
+    }
+}
@@ -0,0 +1,50 @@
+package org.milianz.inmomarketbackend.Utils;
+
+import org.junit.jupiter.api.Test;
+import org.milianz.inmomarketbackend.Domain.Repositories.PublicationSpecifications;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorCodecTest {
+
+    @Test
+    void roundTripsThePartsOfAPublicationCursor() {
+        UUID id = UUID.randomUUID();
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_000_000);
+        BigDecimal price = new BigDecimal("125000.50");
+
+        String[] byDate = CursorCodec.decode(CursorCodec.encode("newest",
+                PublicationSpecifications.cursorValue("newest", createdAt, price, null), id.toString()), 3);
+        String[] byPrice = CursorCodec.decode(CursorCodec.encode("price_asc",
+                PublicationSpecifications.cursorValue("price_asc", createdAt, price, null), id.toString()), 3);
+
+        assertThat(byDate[0]).isEqualTo("newest");
+        assertThat(CursorCodec.timestamp(byDate[1])).isEqualTo(createdAt);
+        assertThat(CursorCodec.uuid(byDate[2])).isEqualTo(id);
+        assertThat(new BigDecimal(byPrice[1])).isEqualByComparingTo(price);
+        assertThat(CursorCodec.uuid(byPrice[2])).isEqualTo(id);
+    }
+
+    @Test
+    void isSafeToPutInAUrl() {
+        String cursor = CursorCodec.encode("price_desc", "99999999999.99", UUID.randomUUID().toString());
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void rejectsTamperedCursors() {
+        String wrongParts = Base64.getUrlEncoder().encodeToString("newest|x".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> CursorCodec.decode(wrongParts, 3)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CursorCodec.decode("%%%", 3)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CursorCodec.uuid("no-es-un-id")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CursorCodec.timestamp("ayer")).isInstanceOf(IllegalArgumentException.class);
+    }
+}